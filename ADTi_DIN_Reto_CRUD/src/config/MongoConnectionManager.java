@@ -1,23 +1,103 @@
 package config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import java.util.Collections;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 public class MongoConnectionManager {
 
-    private static MongoClient cliente;
+    private static final Logger LOGGER = Logger.getLogger(MongoConnectionManager.class.getName());
+
+    private static final MongoPoolMonitor POOL_MONITOR = new MongoPoolMonitor();
+
+    private static volatile MongoClient cliente;
+    private static String databaseName;
+    private static boolean shutdownHookAdded;
 
     private MongoConnectionManager() {
     }
 
     public static MongoDatabase getDatabase() {
-        if (cliente == null) {
-            // Crea un MongoClient, que internamente ya maneja un pool
-            cliente = MongoClients.create("mongodb://localhost:27017");
+        MongoClient client = cliente;
+
+        if (client == null) {
+            // Solo un hilo crea el cliente, para no tener dos pools abiertos
+            synchronized (MongoConnectionManager.class) {
+                client = cliente;
+
+                if (client == null) {
+                    client = createClient();
+
+                    // Crea (si no existen) y comprueba los indices de la coleccion de perfiles
+                    for (String problem : MongoIndexManager.ensureIndexes(client, client.getDatabase(databaseName), "profiles")) {
+                        LOGGER.warning(problem);
+                    }
+                    cliente = client;
+                }
+            }
+        }
+        return client.getDatabase(databaseName);
+    }
+
+    public static MongoPoolMonitor getPoolMonitor() {
+        return POOL_MONITOR;
+    }
+
+    public static synchronized void close() {
+        if (cliente != null) {
+            LOGGER.info("Closing MongoDB client, pool state: " + POOL_MONITOR);
+            cliente.close();
+            cliente = null;
         }
-        return cliente.getDatabase("retoMongo");
     }
-}
 
+    private static MongoClient createClient() {
+        ResourceBundle config = ResourceBundle.getBundle("config.classConfig");
+        databaseName = config.getString("MongoDatabase");
 
+        MongoClientSettings settings = buildSettings(config);
+        MongoClient client = MongoClients.create(settings);
+
+        // El cliente se cierra al salir de la aplicacion, devolviendo las conexiones al servidor
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(MongoConnectionManager::close, "mongo-shutdown"));
+            shutdownHookAdded = true;
+        }
+        return client;
+    }
+
+    static MongoClientSettings buildSettings(ResourceBundle config) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(config.getString("MongoUri")))
+                .applyToConnectionPoolSettings(pool -> pool
+                        .minSize(Integer.parseInt(config.getString("MongoPoolMinSize")))
+                        .maxSize(Integer.parseInt(config.getString("MongoPoolMaxSize")))
+                        .maxConnecting(Integer.parseInt(config.getString("MongoMaxConnecting")))
+                        .maxWaitTime(Long.parseLong(config.getString("MongoPoolMaxWaitMillis")), TimeUnit.MILLISECONDS)
+                        .addConnectionPoolListener(POOL_MONITOR))
+                .applyToSocketSettings(socket -> socket
+                        .connectTimeout(Integer.parseInt(config.getString("MongoConnectTimeoutMillis")), TimeUnit.MILLISECONDS)
+                        .readTimeout(Integer.parseInt(config.getString("MongoSocketTimeoutMillis")), TimeUnit.MILLISECONDS))
+                .applyToClusterSettings(cluster -> cluster
+                        .serverSelectionTimeout(Long.parseLong(config.getString("MongoServerSelectionTimeoutMillis")), TimeUnit.MILLISECONDS));
+
+        // zlib solo necesita java.util.zip; "none" desactiva la compresion
+        if (config.getString("MongoCompression").equalsIgnoreCase("zlib")) {
+            builder.compressorList(Collections.singletonList(MongoCompressor.createZlibCompressor()));
+        }
+
+        WriteConcern writeConcern = WriteConcern.valueOf(config.getString("MongoWriteConcern"));
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("Unknown MongoWriteConcern: " + config.getString("MongoWriteConcern"));
+        }
+        return builder.writeConcern(writeConcern).build();
+    }
+}
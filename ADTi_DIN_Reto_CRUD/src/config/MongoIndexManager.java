@@ -0,0 +1,180 @@
+package config;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Creates and verifies the indexes required by the queries on the profiles collection. Index creation is idempotent, so it can run on every application start: indexes that already exist with the same definition are left untouched.
+ *
+ * The profiles collection is queried by username, by email, by a prefix of the username, email or lastname, by the presence of the gender field, which distinguishes users from administrators, and by the timestamp of the last modification. Without these indexes every login, user listing and change synchronization scans the whole collection.
+ *
+ * The prefix search ignores case and accents like the default collation of MySQL, so its three indexes are built with the SEARCH_COLLATION, and only queries using that same collation can use them. The unique username and email indexes keep the binary comparison used by the login.
+ */
+public class MongoIndexManager
+{
+
+    /**
+     * Name of the unique index on the username field.
+     */
+    public static final String USERNAME_INDEX = "username_unique";
+
+    /**
+     * Name of the unique index on the email field.
+     */
+    public static final String EMAIL_INDEX = "email_unique";
+
+    /**
+     * Name of the partial index containing only user documents, identified by the presence of the gender field.
+     */
+    public static final String USERS_INDEX = "users_by_gender";
+
+    /**
+     * Name of the case insensitive index on the username field, used by the prefix search of users.
+     */
+    public static final String USERNAME_SEARCH_INDEX = "username_search";
+
+    /**
+     * Name of the case insensitive index on the email field, used by the prefix search of users.
+     */
+    public static final String EMAIL_SEARCH_INDEX = "email_search";
+
+    /**
+     * Name of the case insensitive index on the lastname field, used by the prefix search of users.
+     */
+    public static final String LASTNAME_SEARCH_INDEX = "lastname_search";
+
+    /**
+     * Collation of the prefix search and its indexes, which compares only base letters, ignoring case and accents, as the utf8mb4_0900_ai_ci collation of MySQL does.
+     */
+    public static final Collation SEARCH_COLLATION = Collation.builder().locale("en").collationStrength(CollationStrength.PRIMARY).build();
+
+    /**
+     * Name of the index on the modified timestamp, used to read the profiles and tombstones changed after a watermark.
+     */
+    public static final String MODIFIED_INDEX = "modified";
+
+    /**
+     * Name of the collection that keeps a tombstone with the deletion timestamp of every deleted profile.
+     */
+    public static final String TOMBSTONES_COLLECTION = "profile_tombstones";
+
+    private MongoIndexManager()
+    {
+    }
+
+    /**
+     * Creates the indexes of the profiles collection if they do not exist and verifies them afterwards. Failures are not thrown but reported in the returned list, since the application can still work without indexes, only slower.
+     *
+     * @param client the client used to check index builds in progress
+     * @param database the database containing the profiles collection
+     * @param collectionName the name of the profiles collection
+     * @return a list describing every index that could not be created, is missing or is still being built; empty if all indexes are ready
+     */
+    public static List<String> ensureIndexes(MongoClient client, MongoDatabase database, String collectionName)
+    {
+        List<String> problems = new ArrayList<>();
+        MongoCollection<Document> profiles = database.getCollection(collectionName);
+
+        createIndex(profiles, Indexes.ascending("username"), new IndexOptions().name(USERNAME_INDEX).unique(true), problems);
+        createIndex(profiles, Indexes.ascending("email"), new IndexOptions().name(EMAIL_INDEX).unique(true), problems);
+        createIndex(profiles, Indexes.ascending("gender"), new IndexOptions().name(USERS_INDEX).partialFilterExpression(Filters.exists("gender")), problems);
+        createIndex(profiles, Indexes.ascending("username"), new IndexOptions().name(USERNAME_SEARCH_INDEX).collation(SEARCH_COLLATION), problems);
+        createIndex(profiles, Indexes.ascending("email"), new IndexOptions().name(EMAIL_SEARCH_INDEX).collation(SEARCH_COLLATION), problems);
+        createIndex(profiles, Indexes.ascending("lastname"), new IndexOptions().name(LASTNAME_SEARCH_INDEX).collation(SEARCH_COLLATION), problems);
+        createIndex(profiles, Indexes.ascending("modified"), new IndexOptions().name(MODIFIED_INDEX), problems);
+        createIndex(database.getCollection(TOMBSTONES_COLLECTION), Indexes.ascending("modified"), new IndexOptions().name(MODIFIED_INDEX), problems);
+
+        problems.addAll(verifyIndexes(client, database, collectionName));
+
+        return problems;
+    }
+
+    /**
+     * Checks that every expected index exists in the profiles collection and that none of them is still being built.
+     *
+     * @param client the client used to check index builds in progress
+     * @param database the database containing the profiles collection
+     * @param collectionName the name of the profiles collection
+     * @return a list describing every missing index or index build in progress; empty if all indexes are ready
+     */
+    public static List<String> verifyIndexes(MongoClient client, MongoDatabase database, String collectionName)
+    {
+        List<String> problems = new ArrayList<>();
+        Set<String> existing = new HashSet<>();
+
+        try
+        {
+            for (Document index : database.getCollection(collectionName).listIndexes())
+            {
+                existing.add(index.getString("name"));
+            }
+
+            for (String name : new String[]
+            {
+                USERNAME_INDEX, EMAIL_INDEX, USERS_INDEX, USERNAME_SEARCH_INDEX, EMAIL_SEARCH_INDEX, LASTNAME_SEARCH_INDEX, MODIFIED_INDEX
+            })
+            {
+                if (!existing.contains(name))
+                {
+                    problems.add("Index " + name + " is missing on " + collectionName);
+                }
+            }
+        }
+        catch (MongoException ex)
+        {
+            problems.add("Could not list indexes of " + collectionName + ": " + ex.getMessage());
+        }
+
+        try
+        {
+            Document currentOp = client.getDatabase("admin").runCommand(new Document("currentOp", 1)
+                    .append("command.createIndexes", collectionName)
+                    .append("ns", database.getName() + "." + collectionName));
+
+            for (Object op : currentOp.getList("inprog", Object.class, new ArrayList<>()))
+            {
+                Document command = ((Document) op).get("command", Document.class);
+                problems.add("Index build in progress on " + collectionName + (command != null ? ": " + command.get("indexes") : ""));
+            }
+        }
+        catch (MongoException ex)
+        {
+            problems.add("Could not check index builds of " + collectionName + ": " + ex.getMessage());
+        }
+
+        return problems;
+    }
+
+    /**
+     * Creates a single index, recording the error if the creation fails, for example because existing documents violate a unique constraint.
+     *
+     * @param collection the collection to index
+     * @param keys the keys of the index
+     * @param options the options of the index, including its name
+     * @param problems the list where failures are recorded
+     */
+    private static void createIndex(MongoCollection<Document> collection, Bson keys, IndexOptions options, List<String> problems)
+    {
+        try
+        {
+            collection.createIndex(keys, options);
+        }
+        catch (MongoException ex)
+        {
+            problems.add("Index " + options.getName() + " could not be created: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package config;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClearedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool listener that keeps the current state of the MongoDB connection pool: open connections, connections in use, operations waiting for a connection, and the time and failures of every check out. The driver invokes it for every pool event, so its counters are updated atomically without locking.
+ *
+ * A pool that often has operations waiting, or whose check outs time out, needs a greater maximum size; a pool whose connections are rarely in use can be made smaller.
+ */
+public class MongoPoolMonitor implements ConnectionPoolListener
+{
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong checkOuts = new AtomicLong();
+    private final AtomicLong checkOutWaitNanos = new AtomicLong();
+    private final AtomicLong checkOutFailures = new AtomicLong();
+    private final AtomicLong checkOutTimeouts = new AtomicLong();
+    private final AtomicLong clears = new AtomicLong();
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event)
+    {
+        open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event)
+    {
+        open.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event)
+    {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event)
+    {
+        waiting.decrementAndGet();
+        inUse.incrementAndGet();
+        checkOuts.incrementAndGet();
+        checkOutWaitNanos.addAndGet(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event)
+    {
+        waiting.decrementAndGet();
+        checkOutFailures.incrementAndGet();
+
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT)
+        {
+            checkOutTimeouts.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event)
+    {
+        inUse.decrementAndGet();
+    }
+
+    @Override
+    public void connectionPoolCleared(ConnectionPoolClearedEvent event)
+    {
+        clears.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of connections currently open, whether in use or idle.
+     *
+     * @return the number of open connections
+     */
+    public int getOpenCount()
+    {
+        return open.get();
+    }
+
+    /**
+     * Returns the number of connections currently checked out by operations.
+     *
+     * @return the number of connections in use
+     */
+    public int getInUseCount()
+    {
+        return inUse.get();
+    }
+
+    /**
+     * Returns the number of operations currently waiting for a connection.
+     *
+     * @return the number of waiting operations
+     */
+    public int getWaitingCount()
+    {
+        return waiting.get();
+    }
+
+    /**
+     * Returns the number of successful check outs since the pool was created.
+     *
+     * @return the number of check outs
+     */
+    public long getCheckOutCount()
+    {
+        return checkOuts.get();
+    }
+
+    /**
+     * Returns the average time an operation waited to check out a connection.
+     *
+     * @return the average check out time in milliseconds, or 0 if there has been no check out
+     */
+    public double getAverageCheckOutMillis()
+    {
+        long count = checkOuts.get();
+        return count == 0 ? 0 : checkOutWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Returns the number of check outs that failed for any reason.
+     *
+     * @return the number of failed check outs
+     */
+    public long getCheckOutFailureCount()
+    {
+        return checkOutFailures.get();
+    }
+
+    /**
+     * Returns the number of check outs that failed because no connection became available in time, which means the pool is too small for the load.
+     *
+     * @return the number of check outs that timed out
+     */
+    public long getCheckOutTimeoutCount()
+    {
+        return checkOutTimeouts.get();
+    }
+
+    /**
+     * Returns the number of times the pool was cleared, which happens when the server becomes unreachable.
+     *
+     * @return the number of pool clears
+     */
+    public long getClearCount()
+    {
+        return clears.get();
+    }
+
+    /**
+     * Describes the current state of the pool in a single line, suitable for logging.
+     *
+     * @return the state of the pool
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("open=%d inUse=%d waiting=%d checkOuts=%d avgCheckOut=%.2fms failures=%d timeouts=%d clears=%d",
+                getOpenCount(), getInUseCount(), getWaitingCount(), getCheckOutCount(), getAverageCheckOutMillis(),
+                getCheckOutFailureCount(), getCheckOutTimeoutCount(), getClearCount());
+    }
+}
@@ -1,11 +1,19 @@
 package controller;
 
-import exception.OurException;
+import exception.ConcurrentUpdateException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -13,19 +21,24 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
-import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.RadioButton;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import dao.ProfileChangeWatcher;
 import model.Admin;
 import model.Gender;
 import model.LoggedProfile;
 import model.User;
+import model.UserChanges;
+import model.UserSummary;
 
 /**
  * Controller class for the Administrator Window interface. This class handles the administration functionality including user management, profile updates, and system operations. It provides an interface for administrators to view, modify, and delete user accounts with comprehensive validation and data management capabilities.
@@ -37,8 +50,16 @@ public class AdminWindowController implements Initializable
 
     private Controller controller;
     private Admin admin;
-    private ArrayList<User> users;
+    private PagedUserList users;
     private User selectedUser;
+    private long watermark;
+    private boolean usersLoaded;
+    private Timeline syncTimeline;
+    private ProfileChangeWatcher watcher;
+    private PauseTransition searchDelay;
+    private CompletableFuture<ArrayList<UserSummary>> search;
+    private int searchLimit;
+    private final TaskScope tasks = new TaskScope();
 
     @FXML
     private Pane leftPane;
@@ -57,7 +78,15 @@ public class AdminWindowController implements Initializable
     @FXML
     private Label usernameLabel, passwordLabel, nameLabel, telephoneLabel, genderLabel, emailLabel, cardNumberLabel;
     @FXML
-    private ComboBox<User> usersComboBox;
+    private TableView<UserSummary> usersTable;
+    @FXML
+    private TableColumn<UserSummary, Integer> idColumn;
+    @FXML
+    private TableColumn<UserSummary, String> usernameColumn;
+    @FXML
+    private Label userCountLabel;
+    @FXML
+    private TextField searchTextField;
     @FXML
     private Button deleteUserBttn, saveChangesBttn, logOutBttn;
     @FXML
@@ -80,19 +109,255 @@ public class AdminWindowController implements Initializable
     }
 
     /**
-     * Retrieves the complete list of users from the system and populates the users combo box. This method fetches all user records through the main controller and updates the UI component to display them. If an error occurs during retrieval, an error alert is displayed to the administrator.
+     * Retrieves the number of users from the system and sizes the users table with it. Only the count is read here; the table loads the identifier and username of the visible users page by page as it scrolls. The change watermark is read before the count, so later refreshes only request the changes made after it. If an error occurs during retrieval, an error alert is displayed to the administrator.
      */
     private void getUsers()
     {
-        try
+        usersLoaded = false;
+        tasks.run(controller.async().getChangeWatermark(), mark ->
         {
-            users = controller.getUsers();
-            usersComboBox.getItems().setAll(users);
+            watermark = mark;
+            tasks.run(controller.async().countUsers(), count ->
+            {
+                users.reset(count);
+                showUserCount(count);
+                usersLoaded = true;
+                startSync();
+            }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
+        }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
+    }
+
+    /**
+     * Displays the number of users below the users table.
+     *
+     * @param count the total number of users
+     */
+    private void showUserCount(int count)
+    {
+        userCountLabel.setText(count + (count == 1 ? " user" : " users"));
+    }
+
+    /**
+     * Starts keeping the user list up to date. Live changes are pushed by a change stream watcher when the controller provides one; otherwise, or if the server turns out not to support change streams, the list falls back to periodic refreshes.
+     */
+    private void startSync()
+    {
+        if (watcher != null || syncTimeline != null)
+        {
+            return;
         }
-        catch (OurException ex)
+
+        // The stream starts at the watermark of the listing, so changes made while it was read are not lost
+        watcher = controller.watchUserChanges(watermark, new ProfileChangeWatcher.Listener()
         {
-            ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            @Override
+            public void onChanges(UserChanges changes)
+            {
+                Platform.runLater(() ->
+                {
+                    if (!isShowing())
+                    {
+                        stopSync();
+                        return;
+                    }
+                    mergeChanges(changes);
+                });
+            }
+
+            @Override
+            public void onResync()
+            {
+                Platform.runLater(() ->
+                {
+                    if (watcher != null)
+                    {
+                        getUsers();
+                    }
+                });
+            }
+
+            @Override
+            public void onUnavailable()
+            {
+                Platform.runLater(() ->
+                {
+                    if (watcher != null)
+                    {
+                        watcher = null;
+                        startPolling();
+                    }
+                });
+            }
+        });
+
+        if (watcher == null)
+        {
+            startPolling();
+        }
+    }
+
+    /**
+     * Starts the periodic refresh of the user list, which requests only the users changed since the last refresh. The refresh stops by itself once the window is no longer showing.
+     */
+    private void startPolling()
+    {
+        int seconds = Integer.parseInt(ResourceBundle.getBundle("config.classConfig").getString("AdminSyncSeconds"));
+        syncTimeline = new Timeline(new KeyFrame(Duration.seconds(seconds), e ->
+        {
+            if (!isShowing())
+            {
+                stopSync();
+                return;
+            }
+            syncUsers(false);
+        }));
+        syncTimeline.setCycleCount(Animation.INDEFINITE);
+        syncTimeline.play();
+    }
+
+    /**
+     * Stops the live changes and the periodic refresh of the user list.
+     */
+    private void stopSync()
+    {
+        if (watcher != null)
+        {
+            watcher.stop();
+            watcher = null;
+        }
+
+        if (syncTimeline != null)
+        {
+            syncTimeline.stop();
+            syncTimeline = null;
+        }
+    }
+
+    /**
+     * Checks if the administrator window is still showing.
+     *
+     * @return true if the window is showing, false if it was closed or replaced
+     */
+    private boolean isShowing()
+    {
+        return username.getScene() != null && username.getScene().getWindow() != null && username.getScene().getWindow().isShowing();
+    }
+
+    /**
+     * Requests the users changed since the last refresh and merges them into the user list, so a refresh costs as much as the number of changes instead of reloading every user.
+     *
+     * @param showErrors true to display an alert if the changes cannot be read, false to silently wait for the next refresh
+     */
+    private void syncUsers(boolean showErrors)
+    {
+        if (!usersLoaded)
+        {
+            return;
         }
+
+        tasks.run(controller.async().getUsersChangedSince(watermark), this::mergeChanges, ex ->
+        {
+            if (showErrors)
+            {
+                ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+            }
+        });
+    }
+
+    /**
+     * Applies a set of changes to the user list. Users found in the loaded pages are replaced in place. Any other changed user may have been added, so when there is one, or users were deleted, the users are counted again and only the pages from the lowest of those IDs on are read again, since the positions before it do not move. A search being displayed is run again. If the selected user was deleted, the form is cleared, and if the changes are incomplete the listing is loaded again.
+     *
+     * @param changes the changes read after the current watermark
+     */
+    private void mergeChanges(UserChanges changes)
+    {
+        if (!changes.isComplete())
+        {
+            // The changes since the watermark are no longer recorded, so the whole listing is read again
+            getUsers();
+            return;
+        }
+        if (changes.getWatermark() <= watermark && changes.isEmpty())
+        {
+            return;
+        }
+        watermark = Math.max(watermark, changes.getWatermark());
+
+        if (changes.isEmpty())
+        {
+            return;
+        }
+
+        if (selectedUser != null && changes.getDeletedIds().contains(selectedUser.getId()))
+        {
+            clearUserFields();
+        }
+
+        ArrayList<UserSummary> changed = new ArrayList<>();
+        int fromId = Integer.MAX_VALUE;
+
+        for (User user : changes.getUsers())
+        {
+            changed.add(new UserSummary(user.getId(), user.getUsername()));
+
+            // IDs are not inserted in order, so a user outside the loaded pages may be a new one anywhere in the listing
+            if (!users.isLoaded(user.getId()))
+            {
+                fromId = Math.min(fromId, user.getId());
+            }
+        }
+        for (int id : changes.getDeletedIds())
+        {
+            fromId = Math.min(fromId, id);
+        }
+        users.update(changed);
+
+        if (fromId != Integer.MAX_VALUE)
+        {
+            int affected = fromId;
+
+            tasks.run(controller.async().countUsers(), count ->
+            {
+                users.invalidate(affected, count);
+                showUserCount(count);
+            }, ex ->
+            {
+                // The table keeps its current pages until the next change is received
+            });
+        }
+
+        if (!searchTextField.getText().trim().isEmpty())
+        {
+            searchUsers();
+        }
+    }
+
+    /**
+     * Searches the users matching the text of the search box once the administrator stops typing. Any search still running is cancelled first, so only the results of the latest text are displayed. An empty search box shows the paged list of all users again.
+     */
+    private void searchUsers()
+    {
+        if (search != null)
+        {
+            search.cancel(true);
+            search = null;
+        }
+
+        String prefix = searchTextField.getText().trim();
+
+        if (prefix.isEmpty())
+        {
+            usersTable.setItems(users);
+            return;
+        }
+
+        search = controller.async().searchUsers(prefix, searchLimit);
+        tasks.bindTo(searchTextField.getScene().getWindow());
+        tasks.run(search, results ->
+        {
+            search = null;
+            usersTable.setItems(FXCollections.observableArrayList(results));
+        }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
     }
 
     /**
@@ -115,16 +380,16 @@ public class AdminWindowController implements Initializable
         otherRadioButton.setSelected(false);
 
         selectedUser = null;
-        usersComboBox.getSelectionModel().clearSelection();
+        usersTable.getSelectionModel().clearSelection();
     }
 
     /**
-     * Refreshes the user list and clears all input fields. This method reloads the user data from the system and resets the form to its initial state, ensuring the interface displays the most current user information.
+     * Refreshes the user list and clears all input fields. This method merges the users changed since the last refresh into the list and resets the form to its initial state, ensuring the interface displays the most current user information without reloading every user.
      */
     private void refreshUserList()
     {
-        getUsers();
         clearUserFields();
+        syncUsers(true);
     }
 
     /**
@@ -166,6 +431,31 @@ public class AdminWindowController implements Initializable
         }
     }
 
+    /**
+     * Loads the complete record of the user chosen in the table and displays it in the form. Only the summaries of the visible users are kept in the table, so the full data is fetched by ID in the background when a user is selected, and discarded if another user has been chosen meanwhile. If an error occurs during retrieval, an error alert is displayed to the administrator.
+     *
+     * @param summary the summary of the selected user, or null if the selection was lost because the table reloaded its pages
+     */
+    private void selectUser(UserSummary summary)
+    {
+        if (summary == null)
+        {
+            return;
+        }
+
+        tasks.bindTo(usersTable.getScene().getWindow());
+        tasks.run(controller.async().getUser(summary.getId()), user ->
+        {
+            UserSummary current = usersTable.getSelectionModel().getSelectedItem();
+
+            if (current != null && current.getId() == summary.getId())
+            {
+                selectedUser = user;
+                loadUserData();
+            }
+        }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
+    }
+
     /**
      * Saves the changes made to the selected user's profile. This method validates all input fields, updates the user object with the modified data, and persists the changes to the system. If validation fails or the update operation encounters an error, appropriate alert messages are displayed to the administrator.
      *
@@ -198,9 +488,11 @@ public class AdminWindowController implements Initializable
         selectedUser.setCard(cardNumber1TextField.getText() + cardNumber2TextField.getText()
                 + cardNumber3TextField.getText() + cardNumber4TextField.getText());
 
-        try
+        saveChangesBttn.setDisable(true);
+        tasks.bindTo(saveChangesBttn.getScene().getWindow());
+        tasks.run(controller.async().updateUser(selectedUser), success ->
         {
-            boolean success = controller.updateUser(selectedUser);
+            saveChangesBttn.setDisable(false);
 
             if (success)
             {
@@ -211,11 +503,41 @@ public class AdminWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "Could not update user.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
+        }, ex ->
         {
+            saveChangesBttn.setDisable(false);
             ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+
+            if (ex instanceof ConcurrentUpdateException)
+            {
+                reloadUser(((ConcurrentUpdateException) ex).getProfileId());
+            }
+        });
+    }
+
+    /**
+     * Reloads a single user after an update was rejected because another administrator modified it. Only that user is fetched again and shown in the form, provided it is still the selected one, so the administrator can review the latest data and apply the changes again.
+     *
+     * @param id the unique identifier of the user to reload
+     */
+    private void reloadUser(int id)
+    {
+        tasks.run(controller.async().getUser(id), user ->
+        {
+            if (selectedUser != null && selectedUser.getId() == id)
+            {
+                selectedUser = user;
+
+                if (user == null)
+                {
+                    refreshUserList();
+                }
+                else
+                {
+                    loadUserData();
+                }
+            }
+        }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
     }
 
     /**
@@ -258,6 +580,9 @@ public class AdminWindowController implements Initializable
     @FXML
     public void logOut()
     {
+        tasks.cancelAll();
+        searchDelay.stop();
+        stopSync();
         LoggedProfile.getInstance().clear();
         admin = null;
         selectedUser = null;
@@ -435,7 +760,7 @@ public class AdminWindowController implements Initializable
     }
 
     /**
-     * Initializes the controller class and sets up event handlers. This method is automatically called after the FXML file has been loaded and initializes the user interface components, including setting up the user selection combo box handler and configuring input validation for telephone and card number fields.
+     * Initializes the controller class and sets up event handlers. This method is automatically called after the FXML file has been loaded and initializes the user interface components, including setting up the paged users table, whose selection loads the selected user by ID, the debounced search box and configuring input validation for telephone and card number fields.
      *
      * @param url the location used to resolve relative paths for the root object, or null if the location is not known
      * @param rb the resources used to localize the root object, or null if the root object was not localized
@@ -443,11 +768,20 @@ public class AdminWindowController implements Initializable
     @Override
     public void initialize(URL url, ResourceBundle rb)
     {
-        usersComboBox.setOnAction(e ->
-        {
-            selectedUser = usersComboBox.getValue();
-            loadUserData();
-        });
+        ResourceBundle config = ResourceBundle.getBundle("config.classConfig");
+
+        users = new PagedUserList(Integer.parseInt(config.getString("AdminPageSize")), Integer.parseInt(config.getString("AdminMaxPages")),
+                (fromId, offset, limit, onLoaded, onFailed) -> tasks.run(controller.async().getUserSummariesPage(fromId, offset, limit), onLoaded, ex -> onFailed.run()));
+
+        idColumn.setCellValueFactory(c -> c.getValue() != null ? new ReadOnlyObjectWrapper<>(c.getValue().getId()) : null);
+        usernameColumn.setCellValueFactory(c -> c.getValue() != null ? new ReadOnlyObjectWrapper<>(c.getValue().getUsername()) : null);
+        usersTable.setItems(users);
+        usersTable.getSelectionModel().selectedItemProperty().addListener((obs, old, summary) -> selectUser(summary));
+
+        searchLimit = Integer.parseInt(config.getString("SearchLimit"));
+        searchDelay = new PauseTransition(Duration.millis(Integer.parseInt(config.getString("SearchDebounceMillis"))));
+        searchDelay.setOnFinished(e -> searchUsers());
+        searchTextField.textProperty().addListener((obs, old, text) -> searchDelay.playFromStart());
         configureCardNumber();
         configureTelephone();
     }
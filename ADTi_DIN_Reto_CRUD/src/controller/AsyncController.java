@@ -0,0 +1,254 @@
+package controller;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.ResourceBundle;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.Profile;
+import model.User;
+import model.UserChanges;
+import model.UserSummary;
+
+/**
+ * Asynchronous variant of the Controller API. Every operation is executed on a bounded pool of background threads and returns a CompletableFuture, so no database call runs on the JavaFX application thread and the interface stays responsive under database latency.
+ *
+ * The number of worker threads and the size of the waiting queue are read from the classConfig.properties file. When the queue is full, new operations fail immediately instead of piling up. Results are delivered back on the JavaFX application thread through a TaskScope.
+ */
+public class AsyncController
+{
+
+    private final Controller controller;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new AsyncController over the given controller using the executor configuration of the classConfig.properties file.
+     *
+     * @param controller the controller whose operations will be executed asynchronously
+     */
+    public AsyncController(Controller controller)
+    {
+        this(controller,
+                Integer.parseInt(ResourceBundle.getBundle("config.classConfig").getString("AsyncThreads")),
+                Integer.parseInt(ResourceBundle.getBundle("config.classConfig").getString("AsyncQueueSize")));
+    }
+
+    /**
+     * Constructs a new AsyncController over the given controller with an explicit executor size.
+     *
+     * @param controller the controller whose operations will be executed asynchronously
+     * @param threads the number of background threads executing operations
+     * @param queueSize the maximum number of operations waiting for a free thread
+     */
+    public AsyncController(Controller controller, int threads, int queueSize)
+    {
+        this.controller = controller;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r ->
+        {
+            Thread thread = new Thread(r, "dao-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Submits an operation to the background executor. Cancelling the returned future interrupts the operation if it is still running.
+     *
+     * @param <T> the type of the result of the operation
+     * @param call the operation to execute
+     * @return a CompletableFuture completed with the result of the operation, or exceptionally with an OurException if it fails or the executor is saturated
+     */
+    public <T> CompletableFuture<T> submit(DaoCall<T> call)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try
+        {
+            Future<?> task = executor.submit(() ->
+            {
+                try
+                {
+                    future.complete(call.call());
+                }
+                catch (Exception ex)
+                {
+                    future.completeExceptionally(ex);
+                }
+            });
+
+            future.whenComplete((value, error) ->
+            {
+                if (future.isCancelled())
+                {
+                    task.cancel(true);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex)
+        {
+            future.completeExceptionally(new OurException(ErrorMessages.BUSY));
+        }
+
+        return future;
+    }
+
+    /**
+     * Authenticates a user asynchronously.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return a CompletableFuture with the authenticated Profile, or null if the credentials are invalid
+     */
+    public CompletableFuture<Profile> login(String credential, String password)
+    {
+        return submit(() -> controller.login(credential, password));
+    }
+
+    /**
+     * Registers a new user asynchronously.
+     *
+     * @param user the User object containing all registration information
+     * @return a CompletableFuture with the registered User
+     */
+    public CompletableFuture<User> register(User user)
+    {
+        return submit(() -> controller.register(user));
+    }
+
+    /**
+     * Registers a new user and logs them in asynchronously.
+     *
+     * @param user the User object containing all registration information
+     * @return a CompletableFuture with the authenticated Profile of the registered user
+     */
+    public CompletableFuture<Profile> registerAndLogin(User user)
+    {
+        return submit(() -> controller.registerAndLogin(user));
+    }
+
+    /**
+     * Reads the current change watermark asynchronously.
+     *
+     * @return a CompletableFuture with the position of the most recent change
+     */
+    public CompletableFuture<Long> getChangeWatermark()
+    {
+        return submit(controller::getChangeWatermark);
+    }
+
+    /**
+     * Retrieves the users changed after a watermark asynchronously.
+     *
+     * @param watermark the watermark of the previous read
+     * @return a CompletableFuture with the changed users, the deleted IDs and the watermark for the next call
+     */
+    public CompletableFuture<UserChanges> getUsersChangedSince(long watermark)
+    {
+        return submit(() -> controller.getUsersChangedSince(watermark));
+    }
+
+    /**
+     * Retrieves the identifier and username of every user asynchronously.
+     *
+     * @return a CompletableFuture with a UserSummary for each user in the system
+     */
+    public CompletableFuture<ArrayList<UserSummary>> getUserSummaries()
+    {
+        return submit(controller::getUserSummaries);
+    }
+
+    /**
+     * Retrieves the identifier and username of one page of users asynchronously.
+     *
+     * @param fromId the ID after which the offset is counted
+     * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+     * @param limit the maximum number of users to return
+     * @return a CompletableFuture with a UserSummary for each user of the page
+     */
+    public CompletableFuture<ArrayList<UserSummary>> getUserSummariesPage(int fromId, int offset, int limit)
+    {
+        return submit(() -> controller.getUserSummariesPage(fromId, offset, limit));
+    }
+
+    /**
+     * Searches the users whose username, email or lastname starts with the given prefix asynchronously. Cancelling the returned future interrupts a search that has been superseded.
+     *
+     * @param prefix the text the matching fields must start with
+     * @param limit the maximum number of users to return
+     * @return a CompletableFuture with a UserSummary for each matching user
+     */
+    public CompletableFuture<ArrayList<UserSummary>> searchUsers(String prefix, int limit)
+    {
+        return submit(() -> controller.searchUsers(prefix, limit));
+    }
+
+    /**
+     * Counts the users asynchronously.
+     *
+     * @return a CompletableFuture with the number of users
+     */
+    public CompletableFuture<Integer> countUsers()
+    {
+        return submit(controller::countUsers);
+    }
+
+    /**
+     * Retrieves the complete record of a single user asynchronously.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return a CompletableFuture with the User, or null if no user was found
+     */
+    public CompletableFuture<User> getUser(int id)
+    {
+        return submit(() -> controller.getUser(id));
+    }
+
+    /**
+     * Updates an existing user's information asynchronously.
+     *
+     * @param user the User object containing updated information to be saved
+     * @return a CompletableFuture with true if the update was successful, false otherwise
+     */
+    public CompletableFuture<Boolean> updateUser(User user)
+    {
+        return submit(() -> controller.updateUser(user));
+    }
+
+    /**
+     * Deletes a user asynchronously by their unique identifier.
+     *
+     * @param id the unique identifier of the user to be deleted
+     * @return a CompletableFuture with true if the deletion was successful, false otherwise
+     */
+    public CompletableFuture<Boolean> deleteUser(int id)
+    {
+        return submit(() -> controller.deleteUser(id));
+    }
+
+    /**
+     * Returns the number of operations waiting for a free background thread.
+     *
+     * @return the current size of the waiting queue
+     */
+    public int getQueuedCount()
+    {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops the background executor. Operations already running are interrupted and queued ones are discarded.
+     */
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -2,17 +2,30 @@ package controller;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import dao.Bulkhead;
+import dao.BulkheadModelDAO;
+import dao.CachingModelDAO;
 import dao.DBImplementation;
 import dao.ModelDAO;
 import dao.MongoImplements;
+import dao.ProfileChangeWatcher;
+import dao.UserCursor;
 import exception.ErrorMessages;
 import exception.OurException;
+import model.BatchResult;
 import model.Profile;
 import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
 import javafx.scene.image.Image;
 
 /**
@@ -25,7 +38,10 @@ import javafx.scene.image.Image;
 public class Controller
 {
 
-    private final ModelDAO dao;
+    private final CompletableFuture<ModelDAO> ready;
+    private volatile CachingModelDAO cache;
+    private volatile MongoImplements changeSource;
+    private AsyncController async;
 
     /**
      * Constructs a new Controller instance with a custom DAO implementation. This constructor is primarily intended for testing purposes, allowing dependency injection of mock or test DAO implementations.
@@ -34,19 +50,40 @@ public class Controller
      */
     public Controller(ModelDAO dao)
     {
-        this.dao = dao;
+        this.ready = CompletableFuture.completedFuture(dao);
     }
 
     /**
-     * Constructs a new Controller instance and initializes the data access layer. This constructor attempts to establish a connection to the database through the DBImplementation class. If the database connection fails, an exception is thrown with a descriptive error message.
+     * Constructs a new Controller instance and starts opening the MongoDB data access layer in the background with a StartupWarmup, so the login window can be shown at once. The DAO is wrapped in a BulkheadModelDAO and a CachingModelDAO configured from the configuration file, which also decides whether the MySQL pool is filled and whether live change notifications are enabled. Every operation waits until the warm-up has finished, and fails with a descriptive error message if the database connection could not be established.
      *
-     * @throws OurException if the database connection cannot be established, containing details about the connection failure
+     * @throws OurException if the configuration file cannot be read
      */
     public Controller() throws OurException
     {
         try
         {
-            dao = new MongoImplements();
+            ResourceBundle config = ResourceBundle.getBundle("config.classConfig");
+            int cacheMaxSize = Integer.parseInt(config.getString("CacheMaxSize"));
+            long cacheTtlMillis = Long.parseLong(config.getString("CacheTtlMillis"));
+            boolean changeStream = Boolean.parseBoolean(config.getString("MongoChangeStream"));
+            Bulkhead read = bulkhead(config, BulkheadModelDAO.OperationClass.READ);
+            Bulkhead write = bulkhead(config, BulkheadModelDAO.OperationClass.WRITE);
+            Bulkhead bulk = bulkhead(config, BulkheadModelDAO.OperationClass.BULK);
+
+            ready = StartupWarmup.start(() ->
+            {
+                MongoImplements mongo = new MongoImplements();
+                mongo.warmUp();
+
+                // Cache hits are answered without taking a slot of the admission control
+                cache = new CachingModelDAO(new BulkheadModelDAO(mongo, read, write, bulk), cacheMaxSize, cacheTtlMillis);
+
+                if (changeStream)
+                {
+                    changeSource = mongo;
+                }
+                return cache;
+            }, Boolean.parseBoolean(config.getString("WarmupMySQL")));
         }
         catch (Exception ex)
         {
@@ -54,6 +91,69 @@ public class Controller
         }
     }
 
+    /**
+     * Creates the bulkhead of an operation class from its Bulkhead*Limit and Bulkhead*Queue properties and the shared BulkheadQueueMillis property.
+     *
+     * @param config the configuration bundle
+     * @param operationClass the class of operations controlled by the bulkhead
+     * @return the configured Bulkhead
+     */
+    private static Bulkhead bulkhead(ResourceBundle config, BulkheadModelDAO.OperationClass operationClass)
+    {
+        String prefix = "Bulkhead" + operationClass.name().charAt(0) + operationClass.name().substring(1).toLowerCase();
+
+        return new Bulkhead(operationClass.name(),
+                Integer.parseInt(config.getString(prefix + "Limit")),
+                Integer.parseInt(config.getString(prefix + "Queue")),
+                Long.parseLong(config.getString("BulkheadQueueMillis")));
+    }
+
+    /**
+     * Returns a future that completes when the data access layer is ready to be used, so windows can show that the application is still connecting. Cancelling the returned future does not affect the warm-up.
+     *
+     * @return the future completed when the startup warm-up has finished, or completed exceptionally with the OurException that prevented it
+     */
+    public CompletableFuture<Void> whenReady()
+    {
+        return ready.thenApply(dao -> null);
+    }
+
+    /**
+     * Returns the data access layer, waiting for the startup warm-up if it has not finished yet.
+     *
+     * @return the ready ModelDAO
+     * @throws OurException if the data access layer could not be initialized
+     */
+    private ModelDAO dao() throws OurException
+    {
+        try
+        {
+            return ready.join();
+        }
+        catch (CompletionException ex)
+        {
+            if (ex.getCause() instanceof OurException)
+            {
+                throw (OurException) ex.getCause();
+            }
+            throw new OurException(ErrorMessages.DATABASE);
+        }
+    }
+
+    /**
+     * Returns the asynchronous variant of this controller. The background executor is created on first use and shared by all windows.
+     *
+     * @return the AsyncController executing the operations of this controller in the background
+     */
+    public synchronized AsyncController async()
+    {
+        if (async == null)
+        {
+            async = new AsyncController(this);
+        }
+        return async;
+    }
+
     /**
      * Displays the main application window starting with the login interface. This method initializes the primary stage with the login window scene, configures the window properties including title and icon, and sets up the controller reference for the login interface.
      *
@@ -85,7 +185,19 @@ public class Controller
      */
     public User register(User user) throws OurException
     {
-        return dao.register(user);
+        return dao().register(user);
+    }
+
+    /**
+     * Registers a new user and logs them in with a single operation. This method delegates to the data access layer, which sets the newly created profile as the logged profile without querying it again.
+     *
+     * @param user the User object containing all registration information
+     * @return the authenticated Profile of the registered user
+     * @throws OurException if the registration process fails due to validation errors, duplicate users, or database constraints violations
+     */
+    public Profile registerAndLogin(User user) throws OurException
+    {
+        return dao().registerAndLogin(user);
     }
 
     /**
@@ -98,7 +210,7 @@ public class Controller
      */
     public Profile login(String credential, String password) throws OurException
     {
-        return dao.login(credential, password);
+        return dao().login(credential, password);
     }
 
     /**
@@ -109,7 +221,154 @@ public class Controller
      */
     public ArrayList<User> getUsers() throws OurException
     {
-        return dao.getUsers();
+        return dao().getUsers();
+    }
+
+    /**
+     * Opens a cursor that streams all users from the system in batches. This method allows exports, audits and listings to process users as soon as the first batch arrives without loading the whole user database in memory.
+     *
+     * @param fetchSize the number of users to read from the database per batch
+     * @return a UserCursor over all users, which must be closed after use
+     * @throws OurException if the cursor cannot be opened due to database connectivity issues or data access errors
+     */
+    public UserCursor streamUsers(int fetchSize) throws OurException
+    {
+        return dao().streamUsers(fetchSize);
+    }
+
+    /**
+     * Retrieves one page of users from the system ordered by ID. This method allows administrative interfaces to browse the user database page by page instead of loading it completely.
+     *
+     * @param afterId the ID of the last user of the previous page, or 0 to start from the beginning
+     * @param pageSize the maximum number of users to return
+     * @return the UserPage containing the users read and the cursor for the next page
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException
+    {
+        return dao().getUsersPage(afterId, pageSize);
+    }
+
+    /**
+     * Retrieves the identifier and username of one page of users ordered by ID. This method delegates to the data access layer, which counts the offset from the cursor along the identifier index before reading the page.
+     *
+     * @param fromId the ID after which the offset is counted
+     * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each user of the page
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException
+    {
+        return dao().getUserSummariesPage(fromId, offset, limit);
+    }
+
+    /**
+     * Searches the users whose username, email or lastname starts with the given prefix. This method delegates to the data access layer, which matches the prefix through the indexes of those fields and reads at most the given number of users.
+     *
+     * @param prefix the text the matching fields must start with
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each matching user, ordered by username
+     * @throws OurException if the search fails due to database connectivity issues or data access errors
+     */
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException
+    {
+        return dao().searchUsers(prefix, limit);
+    }
+
+    /**
+     * Counts the users in the system.
+     *
+     * @return the number of users
+     * @throws OurException if the count fails due to database connectivity issues or data access errors
+     */
+    public int countUsers() throws OurException
+    {
+        return dao().countUsers();
+    }
+
+    /**
+     * Returns the current change watermark of the data store, to be read before loading a listing that will later be kept up to date with getUsersChangedSince.
+     *
+     * @return the position of the most recent change
+     * @throws OurException if the watermark cannot be read due to database connectivity issues or data access errors
+     */
+    public long getChangeWatermark() throws OurException
+    {
+        return dao().getChangeWatermark();
+    }
+
+    /**
+     * Retrieves the users created, modified or deleted after the given watermark. This method delegates to the data access layer, which only reads the changes recorded after that position.
+     *
+     * @param watermark the watermark of the previous read
+     * @return the UserChanges with the changed users, the deleted IDs and the watermark for the next call
+     * @throws OurException if the changes cannot be read due to database connectivity issues or data access errors
+     */
+    public UserChanges getUsersChangedSince(long watermark) throws OurException
+    {
+        return dao().getUsersChangedSince(watermark);
+    }
+
+    /**
+     * Starts watching the users for live changes, if change streams are enabled in the configuration. The watcher reports every change made after the given watermark, including those made before it starts, and every change is applied to the cache before it reaches the listener, so later reads of a changed user return its current data.
+     *
+     * @param watermark the watermark read before the listing that is kept up to date
+     * @param listener the listener receiving the changes, invoked from the watcher thread
+     * @return the running ProfileChangeWatcher, which must be stopped when no longer needed, or null if live changes are not enabled
+     */
+    public ProfileChangeWatcher watchUserChanges(long watermark, ProfileChangeWatcher.Listener listener)
+    {
+        if (changeSource == null)
+        {
+            return null;
+        }
+
+        return changeSource.watchUsers(watermark, new ProfileChangeWatcher.Listener()
+        {
+            @Override
+            public void onChanges(UserChanges changes)
+            {
+                cache.applyChanges(changes);
+                listener.onChanges(changes);
+            }
+
+            @Override
+            public void onResync()
+            {
+                cache.clear();
+                listener.onResync();
+            }
+
+            @Override
+            public void onUnavailable()
+            {
+                listener.onUnavailable();
+            }
+        });
+    }
+
+    /**
+     * Retrieves the identifier and username of every user in the system. This method provides the minimal data needed to list users in selection components.
+     *
+     * @return an ArrayList containing a UserSummary for each user in the system
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return dao().getUserSummaries();
+    }
+
+    /**
+     * Retrieves the complete record of a single user by their unique identifier. This method is used to load the full user data once a user has been selected.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return the User object with the given ID, or null if no user was found
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    public User getUser(int id) throws OurException
+    {
+        return dao().getUser(id);
     }
 
     /**
@@ -121,7 +380,7 @@ public class Controller
      */
     public boolean updateUser(User user) throws OurException
     {
-        return dao.updateUser(user);
+        return dao().updateUser(user);
     }
 
     /**
@@ -133,6 +392,30 @@ public class Controller
      */
     public boolean deleteUser(int id) throws OurException
     {
-        return dao.deleteUser(id);
+        return dao().deleteUser(id);
+    }
+
+    /**
+     * Updates several users in a single operation. This method persists the changes of all the given users and reports, for each one, whether it was updated, so partial failures can be shown to the administrator.
+     *
+     * @param users the list of User objects containing updated information to be saved
+     * @return a BatchResult indicating, for each user ID, if the update affected a record
+     * @throws OurException if the batch update fails as a whole due to database constraints violations or data access issues
+     */
+    public BatchResult updateUsers(List<User> users) throws OurException
+    {
+        return dao().updateUsers(users);
+    }
+
+    /**
+     * Deletes several users in a single operation by their unique identifiers. This method reports, for each ID, whether a user was deleted, so partial failures can be shown to the administrator.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a BatchResult indicating, for each ID, if a user was deleted
+     * @throws OurException if the batch deletion fails as a whole due to database constraints, referential integrity issues, or data access errors
+     */
+    public BatchResult deleteUsers(int[] ids) throws OurException
+    {
+        return dao().deleteUsers(ids);
     }
 }
@@ -0,0 +1,21 @@
+package controller;
+
+import exception.OurException;
+
+/**
+ * Represents a data access operation that produces a result and may fail with an application exception. It is used to submit any Controller operation to the AsyncController background executor.
+ *
+ * @param <T> the type of the result of the operation
+ */
+@FunctionalInterface
+public interface DaoCall<T>
+{
+
+    /**
+     * Executes the data access operation.
+     *
+     * @return the result of the operation
+     * @throws OurException if the operation fails
+     */
+    public T call() throws OurException;
+}
@@ -1,10 +1,10 @@
 package controller;
 
-import exception.OurException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -30,6 +30,7 @@ public class LoginWindowController implements Initializable
 {
 
     private Controller controller;
+    private final TaskScope tasks = new TaskScope();
 
     @FXML
     private Pane leftPane;
@@ -45,30 +46,37 @@ public class LoginWindowController implements Initializable
     private Button signUpBttn;
 
     /**
-     * Sets the main controller for this login window controller. This method establishes the connection to the main application controller that handles business logic and data operations.
+     * Sets the main controller for this login window controller. This method establishes the connection to the main application controller that handles business logic and data operations, and keeps the login button disabled until the startup warm-up of the controller has finished, so the first login finds open connections.
      *
      * @param controller the main application controller that manages business logic and data operations
      */
     public void setController(Controller controller)
     {
         this.controller = controller;
+
+        CompletableFuture<Void> warmup = controller.whenReady();
+
+        if (!warmup.isDone())
+        {
+            // A failed warm-up enables the button too, so the login reports the connection error
+            logInBttn.setDisable(true);
+            tasks.run(warmup, ready -> logInBttn.setDisable(false), error -> logInBttn.setDisable(false));
+        }
     }
 
     /**
-     * Handles the user login process when the login button is clicked. This method validates input fields, authenticates user credentials through the main controller, and navigates to the appropriate user interface (User Window or Admin Window) based on the authenticated profile type.
+     * Handles the user login process when the login button is clicked. This method validates input fields, authenticates user credentials in the background through the main controller, and navigates to the appropriate user interface (User Window or Admin Window) based on the authenticated profile type.
      *
      * <p>
      * The method performs the following steps:
      * <ol>
      * <li>Validates that both credential and password fields are not empty</li>
-     * <li>Attempts authentication through the main controller</li>
+     * <li>Attempts authentication through the main controller without blocking the interface</li>
      * <li>Redirects to User Window for regular users or Admin Window for administrators</li>
      * <li>Displays appropriate error messages for authentication failures or exceptions</li>
      * </ol>
      * </p>
      *
-     * @throws OurException if authentication fails due to invalid credentials or system errors
-     * @throws IOException if there is an error loading the destination window FXML file
      */
     @FXML
     private void handleLogin()
@@ -82,39 +90,53 @@ public class LoginWindowController implements Initializable
             return;
         }
 
-        try
+        logInBttn.setDisable(true);
+        tasks.bindTo(logInBttn.getScene().getWindow());
+        tasks.run(controller.async().login(credential, password), loggedIn ->
         {
-            Profile loggedIn = controller.login(credential, password);
+            logInBttn.setDisable(false);
 
             if (loggedIn != null)
             {
-                boolean isUser = loggedIn instanceof User;
-                String fxmlPath = isUser ? "/view/UserWindow.fxml" : "/view/AdminWindow.fxml";
-                FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-                Parent window = loader.load();
-
-                if (isUser)
-                {
-                    ((UserWindowController) loader.getController()).setController(this.controller);
-                }
-                else
-                {
-                    ((AdminWindowController) loader.getController()).setController(this.controller);
-                }
-
-                Stage currentwindow = (Stage) logInBttn.getScene().getWindow();
-                currentwindow.setTitle(isUser ? "User" : "Admin");
-                currentwindow.setScene(new Scene(window));
+                openProfileWindow(loggedIn);
             }
             else
             {
                 ShowAlert.showAlert("Error", "Incorrect credentials.", Alert.AlertType.ERROR);
             }
-
-        }
-        catch (OurException ex)
+        }, ex ->
         {
+            logInBttn.setDisable(false);
             ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+
+    /**
+     * Navigates to the appropriate window for an authenticated profile. Regular users are redirected to the User Window and administrators to the Admin Window.
+     *
+     * @param loggedIn the authenticated profile
+     */
+    private void openProfileWindow(Profile loggedIn)
+    {
+        try
+        {
+            boolean isUser = loggedIn instanceof User;
+            String fxmlPath = isUser ? "/view/UserWindow.fxml" : "/view/AdminWindow.fxml";
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
+            Parent window = loader.load();
+
+            if (isUser)
+            {
+                ((UserWindowController) loader.getController()).setController(this.controller);
+            }
+            else
+            {
+                ((AdminWindowController) loader.getController()).setController(this.controller);
+            }
+
+            Stage currentwindow = (Stage) logInBttn.getScene().getWindow();
+            currentwindow.setTitle(isUser ? "User" : "Admin");
+            currentwindow.setScene(new Scene(window));
         }
         catch (IOException ex)
         {
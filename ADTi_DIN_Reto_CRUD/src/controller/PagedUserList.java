@@ -0,0 +1,380 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import javafx.collections.ObservableListBase;
+import model.UserSummary;
+
+/**
+ * Observable list of user summaries that loads its items page by page as they are displayed. The size of the list is the total number of users, but only the pages requested by the view are loaded, and only a bounded number of them is kept in memory, so a virtualized TableView can scroll through any number of users with the memory of a few pages.
+ *
+ * Items of pages that are not loaded yet are returned as null, and the page is requested through the loader. A page is read from the closest known cursor before or after it, counting from the end of the listing when that is closer: the page after a loaded page starts right after its last ID, and a page far from any loaded page is reached by counting the users between the cursor and the page along the identifier index, so every user has exactly one position.
+ */
+public class PagedUserList extends ObservableListBase<UserSummary>
+{
+
+    /**
+     * Loads the summaries of one page of users, usually in the background.
+     */
+    public interface PageLoader
+    {
+
+        /**
+         * Starts loading a page. Exactly one of the callbacks must be invoked, on the JavaFX application thread, once the page is read or the read fails.
+         *
+         * @param fromId the ID after which the offset is counted, or Integer.MAX_VALUE to count from the end of the listing
+         * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+         * @param limit the maximum number of users to read
+         * @param onLoaded the callback receiving the users of the page, ordered by ID
+         * @param onFailed the callback invoked if the page cannot be read
+         */
+        void load(int fromId, int offset, int limit, Consumer<ArrayList<UserSummary>> onLoaded, Runnable onFailed);
+    }
+
+    private final int pageSize;
+    private final PageLoader loader;
+    private final LinkedHashMap<Integer, ArrayList<UserSummary>> pages;
+    private final Set<Integer> requested = new HashSet<>();
+    private final TreeMap<Integer, Integer> cursors = new TreeMap<>();
+    private int size;
+    private int generation;
+
+    /**
+     * Constructs a new empty list. Its size is set with reset once the number of users is known.
+     *
+     * @param pageSize the number of users of each page
+     * @param maxPages the maximum number of pages kept in memory, which must cover at least the visible rows
+     * @param loader the loader reading the pages
+     */
+    public PagedUserList(int pageSize, int maxPages, PageLoader loader)
+    {
+        this.pageSize = pageSize;
+        this.loader = loader;
+        this.pages = new LinkedHashMap<Integer, ArrayList<UserSummary>>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ArrayList<UserSummary>> eldest)
+            {
+                return size() > maxPages;
+            }
+        };
+        cursors.put(0, 0);
+    }
+
+    /**
+     * Discards every loaded page and sets the new number of users. The visible pages are loaded again as the view requests them.
+     *
+     * @param size the total number of users
+     */
+    public void reset(int size)
+    {
+        int oldSize = this.size;
+
+        generation++;
+        pages.clear();
+        requested.clear();
+        cursors.clear();
+        cursors.put(0, 0);
+        this.size = Math.max(0, size);
+
+        beginChange();
+        if (oldSize > 0)
+        {
+            nextRemove(0, Collections.nCopies(oldSize, (UserSummary) null));
+        }
+        if (this.size > 0)
+        {
+            nextAdd(0, this.size);
+        }
+        endChange();
+    }
+
+    /**
+     * Returns the user at the given position, requesting its page if it is not loaded.
+     *
+     * @param index the position of the user
+     * @return the UserSummary at that position, or null if its page is still loading
+     */
+    @Override
+    public UserSummary get(int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        int page = index / pageSize;
+        ArrayList<UserSummary> items = pages.get(page);
+
+        if (items == null)
+        {
+            request(page);
+            return null;
+        }
+
+        int offset = index % pageSize;
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    /**
+     * Returns the total number of users, including those not loaded.
+     *
+     * @return the number of users
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Searches the user among the loaded pages only, so that selection handling never loads the whole listing.
+     *
+     * @param o the user to find
+     * @return the position of the user, or -1 if it is not in a loaded page
+     */
+    @Override
+    public int indexOf(Object o)
+    {
+        for (Map.Entry<Integer, ArrayList<UserSummary>> entry : pages.entrySet())
+        {
+            int offset = entry.getValue().indexOf(o);
+            if (offset >= 0)
+            {
+                return entry.getKey() * pageSize + offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches the user among the loaded pages only.
+     *
+     * @param o the user to find
+     * @return the last position of the user, or -1 if it is not in a loaded page
+     */
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        return indexOf(o);
+    }
+
+    /**
+     * Checks if the user is in a loaded page.
+     *
+     * @param o the user to find
+     * @return true if the user is in a loaded page, false otherwise
+     */
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Replaces the loaded copies of the given users, so renamed users are displayed without reading their pages again. Users that are not in a loaded page are ignored.
+     *
+     * @param changed the new summaries of the changed users
+     */
+    public void update(Collection<UserSummary> changed)
+    {
+        Map<Integer, UserSummary> byId = new HashMap<>();
+        for (UserSummary summary : changed)
+        {
+            byId.put(summary.getId(), summary);
+        }
+
+        beginChange();
+        for (Map.Entry<Integer, ArrayList<UserSummary>> entry : pages.entrySet())
+        {
+            ArrayList<UserSummary> items = entry.getValue();
+            for (int i = 0; i < items.size(); i++)
+            {
+                UserSummary summary = byId.get(items.get(i).getId());
+                int index = entry.getKey() * pageSize + i;
+
+                if (summary != null && index < size)
+                {
+                    nextSet(index, items.set(i, summary));
+                }
+            }
+        }
+        endChange();
+    }
+
+    /**
+     * Discards only the pages affected by users added or deleted from the given ID on, and sets the new number of users. Pages made entirely of lower IDs keep their positions and stay loaded, and the view is notified of the changed range at once instead of position by position.
+     *
+     * @param fromId the lowest ID of the added or deleted users
+     * @param size the new total number of users
+     */
+    public void invalidate(int fromId, int size)
+    {
+        int oldSize = this.size;
+        int fromPage = Integer.MAX_VALUE;
+
+        for (Iterator<Map.Entry<Integer, ArrayList<UserSummary>>> it = pages.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<Integer, ArrayList<UserSummary>> entry = it.next();
+            ArrayList<UserSummary> items = entry.getValue();
+
+            if (items.size() < pageSize || items.get(items.size() - 1).getId() >= fromId)
+            {
+                fromPage = Math.min(fromPage, entry.getKey());
+                it.remove();
+            }
+        }
+        for (int page : requested)
+        {
+            fromPage = Math.min(fromPage, page);
+        }
+        cursors.values().removeIf(afterId -> afterId >= fromId);
+        cursors.put(0, 0);
+
+        // Pages still loading may include the changed users, so their results are discarded
+        generation++;
+        requested.clear();
+        this.size = Math.max(0, size);
+
+        int common = Math.min(oldSize, this.size);
+        int from = (int) Math.min((long) fromPage * pageSize, common);
+
+        beginChange();
+        if (from < common)
+        {
+            nextReplace(from, common, Collections.nCopies(common - from, (UserSummary) null));
+        }
+        if (oldSize > this.size)
+        {
+            nextRemove(this.size, Collections.nCopies(oldSize - this.size, (UserSummary) null));
+        }
+        else if (this.size > oldSize)
+        {
+            nextAdd(oldSize, this.size);
+        }
+        endChange();
+    }
+
+    /**
+     * Checks if the user with the given ID is in a loaded page.
+     *
+     * @param id the ID of the user
+     * @return true if the user is in a loaded page, false otherwise
+     */
+    public boolean isLoaded(int id)
+    {
+        for (ArrayList<UserSummary> items : pages.values())
+        {
+            for (UserSummary summary : items)
+            {
+                if (summary.getId() == id)
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of pages currently kept in memory.
+     *
+     * @return the number of loaded pages
+     */
+    public int getLoadedPageCount()
+    {
+        return pages.size();
+    }
+
+    /**
+     * Requests a page from the loader, counting from the known cursor closest to it, which is the end of the listing if no cursor after the page is closer. A page is only requested once until it is loaded or its read fails.
+     *
+     * @param page the index of the page
+     */
+    private void request(int page)
+    {
+        if (!requested.add(page))
+        {
+            return;
+        }
+
+        int loadGeneration = generation;
+        long start = (long) page * pageSize;
+        Map.Entry<Integer, Integer> before = cursors.floorEntry(page);
+        Map.Entry<Integer, Integer> after = cursors.higherEntry(page);
+        long beforeOffset = start - (long) before.getKey() * pageSize;
+        long afterIndex = after != null ? (long) after.getKey() * pageSize : size;
+        int fromId = before.getValue();
+        long offset = beforeOffset;
+
+        // The end of the listing is a cursor after every ID, at the position of the total number of users
+        if (afterIndex - start < beforeOffset)
+        {
+            fromId = after != null ? after.getValue() : Integer.MAX_VALUE;
+            offset = start - afterIndex;
+        }
+
+        loader.load(fromId, (int) offset, pageSize, items ->
+        {
+            if (loadGeneration == generation)
+            {
+                loaded(page, items);
+            }
+        }, () ->
+        {
+            if (loadGeneration == generation)
+            {
+                requested.remove(page);
+            }
+        });
+    }
+
+    /**
+     * Stores a loaded page, records the cursor of the following page and notifies the view of the new items. A page shorter than the page size is the last one, so if users were deleted since the list was sized, the positions after it are removed instead of staying empty.
+     *
+     * @param page the index of the page
+     * @param items the users of the page
+     */
+    private void loaded(int page, ArrayList<UserSummary> items)
+    {
+        requested.remove(page);
+        pages.put(page, items);
+
+        if (!items.isEmpty())
+        {
+            cursors.put(page + 1, items.get(items.size() - 1).getId());
+        }
+
+        int from = page * pageSize;
+        int oldSize = size;
+
+        if (items.size() < pageSize && from + items.size() < size)
+        {
+            size = from + items.size();
+            pages.keySet().removeIf(p -> p > page);
+            cursors.keySet().removeIf(p -> p > page + 1);
+        }
+
+        int to = Math.min(from + pageSize, size);
+
+        beginChange();
+        for (int i = from; i < to; i++)
+        {
+            nextSet(i, null);
+        }
+        if (size < oldSize)
+        {
+            nextRemove(size, Collections.nCopies(oldSize - size, (UserSummary) null));
+        }
+        endChange();
+    }
+}
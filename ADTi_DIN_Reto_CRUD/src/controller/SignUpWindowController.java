@@ -1,6 +1,5 @@
 package controller;
 
-import exception.OurException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
@@ -19,7 +18,6 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.Pane;
 import javafx.stage.Stage;
 import model.Gender;
-import model.Profile;
 import model.User;
 
 /**
@@ -31,6 +29,7 @@ public class SignUpWindowController implements Initializable
 {
 
     private Controller controller;
+    private final TaskScope tasks = new TaskScope();
 
     @FXML
     private Pane leftPane;
@@ -95,7 +94,7 @@ public class SignUpWindowController implements Initializable
     }
 
     /**
-     * Handles the user registration process when the sign up button is clicked. This method validates all input fields, collects user data, creates a new User object, and attempts to register the user through the main controller. Upon successful registration, the user is automatically logged in and redirected to the user window.
+     * Handles the user registration process when the sign up button is clicked. This method validates all input fields, collects user data, creates a new User object, and attempts to register the user in the background through the main controller. Upon successful registration, the user is automatically logged in and redirected to the user window.
      *
      * The method performs comprehensive validation including field completeness checks, email format validation, telephone number format validation, password strength requirements, and credit card number validation.
      *
@@ -136,46 +135,49 @@ public class SignUpWindowController implements Initializable
                 + cardNumber3TextField.getText()
                 + cardNumber4TextField.getText();
 
-        try
-        {
-            User user = new User(email, username, password, name, lastname, telephone, gender, cardNumber);
+        User user = new User(email, username, password, name, lastname, telephone, gender, cardNumber);
 
-            User registeredUser = controller.register(user);
+        signUpBttn.setDisable(true);
+        tasks.bindTo(signUpBttn.getScene().getWindow());
+        tasks.run(controller.async().registerAndLogin(user), loggedIn ->
+        {
+            signUpBttn.setDisable(false);
 
-            if (registeredUser != null)
+            if (loggedIn != null)
             {
-                Profile loggedIn = controller.login(username, password);
-
-                if (loggedIn != null)
-                {
-                    String fxmlPath = "/view/UserWindow.fxml";
-                    FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-                    Parent window = loader.load();
-
-                    UserWindowController userController = loader.getController();
-                    userController.setController(this.controller);
-
-                    Stage currentWindow = (Stage) signUpBttn.getScene().getWindow();
-                    currentWindow.setTitle("User");
-                    currentWindow.setScene(new Scene(window));
-
-                    ShowAlert.showAlert("Success", "Account created successfully!", Alert.AlertType.INFORMATION);
-                    resetFieldStyles();
-                }
-                else
-                {
-                    ShowAlert.showAlert("Error", "Account created but login failed.", Alert.AlertType.ERROR);
-                }
+                openUserWindow();
             }
             else
             {
                 ShowAlert.showAlert("Error", "User registration failed. Please try again.", Alert.AlertType.ERROR);
             }
-
-        }
-        catch (OurException ex)
+        }, ex ->
         {
+            signUpBttn.setDisable(false);
             ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
+        });
+    }
+
+    /**
+     * Navigates to the user window after a successful registration and informs the user that the account has been created.
+     */
+    private void openUserWindow()
+    {
+        try
+        {
+            String fxmlPath = "/view/UserWindow.fxml";
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
+            Parent window = loader.load();
+
+            UserWindowController userController = loader.getController();
+            userController.setController(this.controller);
+
+            Stage currentWindow = (Stage) signUpBttn.getScene().getWindow();
+            currentWindow.setTitle("User");
+            currentWindow.setScene(new Scene(window));
+
+            ShowAlert.showAlert("Success", "Account created successfully!", Alert.AlertType.INFORMATION);
+            resetFieldStyles();
         }
         catch (IOException ex)
         {
@@ -0,0 +1,134 @@
+package controller;
+
+import dao.ModelDAO;
+import exception.ErrorMessages;
+import exception.OurException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import pool.ConnectionLease;
+import pool.ConnectionLeaseManager;
+import pool.ConnectionPool;
+
+/**
+ * Prepares the data access layer in the background while the login window is shown. The DAO is opened and warmed up on a daemon thread, which creates the database clients, checks that the servers respond and loads the collections and indexes used by the login, and the MySQL connection pool is filled in parallel with its minimum idle connections, each validated before it is returned to the pool.
+ *
+ * The result is published as a future that completes with the ready DAO, so the first operation of the user waits for the warm-up instead of paying for it, and finds open connections.
+ */
+public class StartupWarmup
+{
+
+    private static final Logger LOGGER = Logger.getLogger(StartupWarmup.class.getName());
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private StartupWarmup()
+    {
+    }
+
+    /**
+     * Starts the warm-up in the background. The returned future completes when the DAO is open and, if requested, the connection pool has been filled. A failure filling the pool is only logged, since the pool is not needed by every DAO, while a failure opening the DAO completes the future exceptionally.
+     *
+     * @param open the operation creating and warming up the DAO
+     * @param prefillPool true to fill the MySQL connection pool in parallel
+     * @return the future completed with the ready DAO, or with the OurException that prevented opening it
+     */
+    public static CompletableFuture<ModelDAO> start(DaoCall<ModelDAO> open, boolean prefillPool)
+    {
+        long start = System.nanoTime();
+        CompletableFuture<ModelDAO> dao = runInBackground("startup-warmup", open);
+        CompletableFuture<Integer> pool = prefillPool
+                ? runInBackground("pool-warmup", StartupWarmup::prefillConnectionPool).exceptionally(ex ->
+                {
+                    LOGGER.log(Level.WARNING, "Connection pool could not be filled at startup", ex);
+                    return 0;
+                })
+                : CompletableFuture.completedFuture(0);
+
+        return dao.thenCombine(pool, (ready, connections) ->
+        {
+            LOGGER.info(String.format("Startup warm-up finished in %d ms, %d pooled connections ready",
+                    (System.nanoTime() - start) / 1_000_000, connections));
+            return ready;
+        });
+    }
+
+    /**
+     * Opens the minimum idle connections of the pool at the same time, so that each lease creates a connection, and validates every one of them with a ping to the server before returning them to the pool.
+     *
+     * @return the number of connections opened and validated
+     * @throws OurException if a connection cannot be obtained or is not valid
+     */
+    public static int prefillConnectionPool() throws OurException
+    {
+        int count = Math.min(ConnectionPool.getMinIdle(), ConnectionLeaseManager.getLeaseLimit());
+        List<ConnectionLease> leases = new ArrayList<>(count);
+
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                ConnectionLease lease = ConnectionLeaseManager.acquire("warmup");
+                leases.add(lease);
+
+                if (!lease.getConnection().isValid(VALIDATION_TIMEOUT_SECONDS))
+                {
+                    throw new OurException(ErrorMessages.DATABASE);
+                }
+            }
+            return count;
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.DATABASE);
+        } finally
+        {
+            for (ConnectionLease lease : leases)
+            {
+                try
+                {
+                    lease.close();
+                }
+                catch (OurException ex)
+                {
+                    LOGGER.log(Level.WARNING, "Warm-up connection could not be returned", ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an operation on a new daemon thread, so the warm-up never keeps the application alive. Failures initializing the database classes are reported as a database error.
+     *
+     * @param <T> the type of the result of the operation
+     * @param name the name of the thread
+     * @param call the operation to run
+     * @return the future completed with the result of the operation
+     */
+    private static <T> CompletableFuture<T> runInBackground(String name, DaoCall<T> call)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Thread thread = new Thread(() ->
+        {
+            try
+            {
+                future.complete(call.call());
+            }
+            catch (OurException ex)
+            {
+                future.completeExceptionally(ex);
+            }
+            catch (RuntimeException | LinkageError ex)
+            {
+                future.completeExceptionally(new OurException(ErrorMessages.DATABASE));
+            }
+        }, name);
+
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+}
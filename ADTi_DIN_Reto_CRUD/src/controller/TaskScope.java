@@ -0,0 +1,116 @@
+package controller;
+
+import exception.OurException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import javafx.application.Platform;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+
+/**
+ * Tracks the asynchronous operations started by a window and delivers their results on the JavaFX application thread. When the window is closed, every pending operation is cancelled and its callbacks are never executed, so a closed window is not updated by a late database response.
+ */
+public class TaskScope
+{
+
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+    private Window window;
+
+    /**
+     * Binds this scope to a window so that all its pending operations are cancelled when the window is hidden. Binding to the same window again has no effect.
+     *
+     * @param window the window owning the operations of this scope
+     */
+    public void bindTo(Window window)
+    {
+        if (this.window == window)
+        {
+            return;
+        }
+
+        this.window = window;
+        window.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> cancelAll());
+    }
+
+    /**
+     * Registers an asynchronous operation and the callbacks that handle its outcome. The callbacks are executed on the JavaFX application thread unless the operation has been cancelled.
+     *
+     * @param <T> the type of the result of the operation
+     * @param future the pending operation
+     * @param onSuccess the callback receiving the result when the operation succeeds
+     * @param onError the callback receiving the exception when the operation fails
+     */
+    public <T> void run(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<OurException> onError)
+    {
+        pending.add(future);
+
+        future.whenComplete((value, error) ->
+        {
+            pending.remove(future);
+
+            if (future.isCancelled())
+            {
+                return;
+            }
+
+            Platform.runLater(() ->
+            {
+                if (future.isCancelled())
+                {
+                    return;
+                }
+
+                if (error == null)
+                {
+                    onSuccess.accept(value);
+                }
+                else
+                {
+                    onError.accept(toOurException(error));
+                }
+            });
+        });
+    }
+
+    /**
+     * Cancels every pending operation of this scope.
+     */
+    public void cancelAll()
+    {
+        for (CompletableFuture<?> future : pending)
+        {
+            future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Returns the number of operations of this scope that have not finished yet.
+     *
+     * @return the number of pending operations
+     */
+    public int getPendingCount()
+    {
+        return pending.size();
+    }
+
+    /**
+     * Converts the failure of an operation into an OurException that can be shown to the user.
+     *
+     * @param error the failure of the operation
+     * @return the OurException describing the failure
+     */
+    private OurException toOurException(Throwable error)
+    {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+        if (cause instanceof OurException)
+        {
+            return (OurException) cause;
+        }
+        return new OurException(cause.getMessage());
+    }
+}
@@ -1,6 +1,6 @@
 package controller;
 
-import exception.OurException;
+import exception.ConcurrentUpdateException;
 import exception.ShowAlert;
 import java.io.IOException;
 import java.net.URL;
@@ -36,6 +36,7 @@ public class UserWindowController implements Initializable
 
     private Controller controller;
     private User user;
+    private final TaskScope tasks = new TaskScope();
 
     @FXML
     private Pane leftPane;
@@ -190,9 +191,11 @@ public class UserWindowController implements Initializable
         user.setGender(gender);
         user.setCard(card);
 
-        try
+        saveChangesBttn.setDisable(true);
+        tasks.bindTo(saveChangesBttn.getScene().getWindow());
+        tasks.run(controller.async().updateUser(user), success ->
         {
-            boolean success = controller.updateUser(user);
+            saveChangesBttn.setDisable(false);
 
             if (success)
             {
@@ -206,11 +209,38 @@ public class UserWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "Could not update user.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
+        }, ex ->
         {
+            saveChangesBttn.setDisable(false);
             ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+
+            if (ex instanceof ConcurrentUpdateException)
+            {
+                reloadUser(((ConcurrentUpdateException) ex).getProfileId());
+            }
+        });
+    }
+
+    /**
+     * Reloads the logged-in user after an update was rejected because the profile was modified in another session. The latest data replaces the logged profile and is shown in the form, so the user can review it and apply the changes again; if the account no longer exists, the user is logged out.
+     *
+     * @param id the unique identifier of the logged-in user
+     */
+    private void reloadUser(int id)
+    {
+        tasks.run(controller.async().getUser(id), reloaded ->
+        {
+            if (reloaded == null)
+            {
+                logOut();
+                return;
+            }
+
+            user = reloaded;
+            LoggedProfile.getInstance().setProfile(user);
+            setData();
+            resetFieldStyles();
+        }, ex -> ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR));
     }
 
     /**
@@ -253,6 +283,7 @@ public class UserWindowController implements Initializable
     @FXML
     public void logOut()
     {
+        tasks.cancelAll();
         LoggedProfile.getInstance().clear();
         user = null;
 
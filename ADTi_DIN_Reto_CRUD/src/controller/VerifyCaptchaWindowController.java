@@ -1,6 +1,5 @@
 package controller;
 
-import exception.OurException;
 import exception.ShowAlert;
 import java.net.URL;
 import java.util.Random;
@@ -30,6 +29,7 @@ public class VerifyCaptchaWindowController implements Initializable
     private Profile profile;
     private int code, userDelete;
     private Runnable onUserDeletedCallback;
+    private final TaskScope tasks = new TaskScope();
 
     @FXML
     private Pane rightPane;
@@ -86,9 +86,7 @@ public class VerifyCaptchaWindowController implements Initializable
     }
 
     /**
-     * Handles the confirmation action when the confirm button is clicked. This method validates the user-input CAPTCHA code against the generated code, executes the user deletion operation upon successful verification, and triggers the callback function if provided. It also handles error cases and displays appropriate feedback to the user.
-     *
-     * @throws OurException if the user deletion operation fails due to database constraints, data access issues, or system errors
+     * Handles the confirmation action when the confirm button is clicked. This method validates the user-input CAPTCHA code against the generated code, executes the user deletion operation in the background upon successful verification, and triggers the callback function if provided. It also handles error cases and displays appropriate feedback to the user.
      */
     @FXML
     private void confirmButton()
@@ -108,9 +106,11 @@ public class VerifyCaptchaWindowController implements Initializable
             return;
         }
 
-        try
+        confirmBttn.setDisable(true);
+        tasks.bindTo(confirmBttn.getScene().getWindow());
+        tasks.run(controller.async().deleteUser(userDelete != -1 ? userDelete : profile.getId()), success ->
         {
-            boolean success = controller.deleteUser(userDelete != -1 ? userDelete : profile.getId());
+            confirmBttn.setDisable(false);
 
             if (success)
             {
@@ -127,11 +127,11 @@ public class VerifyCaptchaWindowController implements Initializable
             {
                 ShowAlert.showAlert("Error", "User could not be deleted.", Alert.AlertType.ERROR);
             }
-        }
-        catch (OurException ex)
+        }, ex ->
         {
+            confirmBttn.setDisable(false);
             ShowAlert.showAlert("Error", ex.getMessage(), Alert.AlertType.ERROR);
-        }
+        });
     }
 
     /**
@@ -0,0 +1,276 @@
+package dao;
+
+import exception.OurException;
+import exception.OverloadedException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Admission control for one kind of database operation. At most a fixed number of operations run at the same time; further operations wait in arrival order in a bounded queue, and are rejected with an OverloadedException as soon as they arrive if the queue is full, or when they have waited longer than the queue deadline. A burst of operations therefore never piles up an unbounded number of blocked threads, and callers learn promptly that the system is overloaded.
+ *
+ * The current queue depth and the admitted and rejected operations are counted atomically, so the bulkhead can be monitored while it is in use.
+ */
+public class Bulkhead
+{
+
+    /**
+     * Database operation run inside a bulkhead.
+     *
+     * @param <T> the type of the result of the operation
+     */
+    @FunctionalInterface
+    public interface Operation<T>
+    {
+
+        /**
+         * Executes the operation.
+         *
+         * @return the result of the operation
+         * @throws OurException if the operation fails
+         */
+        public T run() throws OurException;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(Bulkhead.class.getName());
+
+    private final String name;
+    private final int limit;
+    private final int queueSize;
+    private final long maxQueueNanos;
+    private final Semaphore permits;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong totalQueueNanos = new AtomicLong();
+
+    /**
+     * Constructs a new bulkhead.
+     *
+     * @param name the name of the kind of operation, used in rejections and logs
+     * @param limit the maximum number of operations running at the same time
+     * @param queueSize the maximum number of operations waiting to run
+     * @param maxQueueMillis the maximum time in milliseconds an operation may wait before it is rejected
+     */
+    public Bulkhead(String name, int limit, int queueSize, long maxQueueMillis)
+    {
+        this.name = name;
+        this.limit = limit;
+        this.queueSize = queueSize;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueMillis);
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Runs an operation once it is admitted, and frees its slot when it finishes.
+     *
+     * @param <T> the type of the result of the operation
+     * @param operation the operation to run
+     * @return the result of the operation
+     * @throws OverloadedException if the operation is not admitted
+     * @throws OurException if the operation fails
+     */
+    public <T> T execute(Operation<T> operation) throws OurException
+    {
+        enter();
+
+        try
+        {
+            return operation.run();
+        }
+        finally
+        {
+            exit();
+        }
+    }
+
+    /**
+     * Waits until an operation can run. Every successful call must be followed by exactly one call to exit, which is useful for operations that keep their slot after returning, such as open cursors.
+     *
+     * @throws OverloadedException if the wait queue is full, or no slot became free before the queue deadline
+     */
+    public void enter() throws OverloadedException
+    {
+        try
+        {
+            // A zero timeout keeps the arrival order of the fair semaphore, unlike tryAcquire()
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS))
+            {
+                admitted.incrementAndGet();
+                return;
+            }
+
+            int depth = queued.incrementAndGet();
+
+            if (depth > queueSize)
+            {
+                queued.decrementAndGet();
+                queueFull.incrementAndGet();
+                LOGGER.warning("Rejected " + name + " operation, wait queue full: " + this);
+                throw new OverloadedException(name, true);
+            }
+            maxQueued.accumulateAndGet(depth, Math::max);
+
+            long start = System.nanoTime();
+
+            try
+            {
+                if (!permits.tryAcquire(maxQueueNanos, TimeUnit.NANOSECONDS))
+                {
+                    expired.incrementAndGet();
+                    LOGGER.warning("Rejected " + name + " operation, queue deadline exceeded: " + this);
+                    throw new OverloadedException(name, false);
+                }
+            }
+            finally
+            {
+                queued.decrementAndGet();
+            }
+
+            totalQueueNanos.addAndGet(System.nanoTime() - start);
+            admitted.incrementAndGet();
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new OverloadedException(name, false);
+        }
+    }
+
+    /**
+     * Frees the slot taken by a previous successful call to enter, admitting the next waiting operation.
+     */
+    public void exit()
+    {
+        permits.release();
+    }
+
+    /**
+     * Returns the name of the kind of operation controlled by this bulkhead.
+     *
+     * @return the name of the bulkhead
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns the maximum number of operations running at the same time.
+     *
+     * @return the concurrency limit
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Returns the maximum number of operations waiting to run.
+     *
+     * @return the size of the wait queue
+     */
+    public int getQueueSize()
+    {
+        return queueSize;
+    }
+
+    /**
+     * Returns the number of operations currently running.
+     *
+     * @return the number of active operations
+     */
+    public int getActiveCount()
+    {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of operations currently waiting to run.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth()
+    {
+        return queued.get();
+    }
+
+    /**
+     * Returns the greatest number of operations that have been waiting at the same time.
+     *
+     * @return the maximum queue depth
+     */
+    public int getMaxQueueDepth()
+    {
+        return maxQueued.get();
+    }
+
+    /**
+     * Returns the number of operations admitted, immediately or after waiting.
+     *
+     * @return the number of admitted operations
+     */
+    public long getAdmittedCount()
+    {
+        return admitted.get();
+    }
+
+    /**
+     * Returns the number of operations rejected on arrival because the wait queue was full.
+     *
+     * @return the number of queue full rejections
+     */
+    public long getQueueFullCount()
+    {
+        return queueFull.get();
+    }
+
+    /**
+     * Returns the number of operations rejected because they waited longer than the queue deadline.
+     *
+     * @return the number of deadline rejections
+     */
+    public long getExpiredCount()
+    {
+        return expired.get();
+    }
+
+    /**
+     * Returns the number of operations rejected for any reason.
+     *
+     * @return the number of rejected operations
+     */
+    public long getRejectedCount()
+    {
+        return queueFull.get() + expired.get();
+    }
+
+    /**
+     * Returns the average time an admitted operation waited before running.
+     *
+     * @return the average queue time in milliseconds, or 0 if no operation has been admitted
+     */
+    public double getAverageQueueMillis()
+    {
+        long count = admitted.get();
+        return count == 0 ? 0 : totalQueueNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Describes the current state of the bulkhead in a single line, suitable for logging.
+     *
+     * @return the state of the bulkhead
+     */
+    @Override
+    public String toString()
+    {
+        return String.format("%s active=%d/%d queued=%d/%d maxQueued=%d admitted=%d avgQueue=%.2fms queueFull=%d expired=%d",
+                name, getActiveCount(), limit, getQueueDepth(), queueSize, getMaxQueueDepth(), getAdmittedCount(),
+                getAverageQueueMillis(), getQueueFullCount(), getExpiredCount());
+    }
+}
@@ -0,0 +1,233 @@
+package dao;
+
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import model.BatchResult;
+import model.Profile;
+import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
+
+/**
+ * Admission control placed in front of another ModelDAO implementation. Every operation belongs to an operation class with its own Bulkhead, so short reads, single writes and bulk operations each have their own concurrency limit and wait queue, and a burst of one kind cannot take every database connection from the others. Operations that cannot be admitted fail at once with an OverloadedException.
+ *
+ * An open user cursor keeps its slot of the bulk class until it is closed, since it keeps its connection open until then.
+ */
+public class BulkheadModelDAO implements ModelDAO
+{
+
+    /**
+     * Classes of operations with separate admission control.
+     */
+    public enum OperationClass
+    {
+        /**
+         * Logins and reads of a single profile, a page, a search result or the change log.
+         */
+        READ,
+        /**
+         * Registrations, updates and deletions of a single profile.
+         */
+        WRITE,
+        /**
+         * Operations on every user or on many users at once.
+         */
+        BULK
+    }
+
+    private final ModelDAO dao;
+    private final Map<OperationClass, Bulkhead> bulkheads = new EnumMap<>(OperationClass.class);
+
+    /**
+     * Constructs a new admission control layer in front of the given DAO.
+     *
+     * @param dao the ModelDAO implementation that actually reads and writes the data
+     * @param read the bulkhead of the READ operations
+     * @param write the bulkhead of the WRITE operations
+     * @param bulk the bulkhead of the BULK operations
+     */
+    public BulkheadModelDAO(ModelDAO dao, Bulkhead read, Bulkhead write, Bulkhead bulk)
+    {
+        this.dao = dao;
+        bulkheads.put(OperationClass.READ, read);
+        bulkheads.put(OperationClass.WRITE, write);
+        bulkheads.put(OperationClass.BULK, bulk);
+    }
+
+    /**
+     * Returns the bulkhead of an operation class, to inspect its queue depth and rejections.
+     *
+     * @param operationClass the class of operations
+     * @return the Bulkhead controlling that class
+     */
+    public Bulkhead getBulkhead(OperationClass operationClass)
+    {
+        return bulkheads.get(operationClass);
+    }
+
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.login(credential, password));
+    }
+
+    @Override
+    public User getUser(int id) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.getUser(id));
+    }
+
+    @Override
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.getUsersPage(afterId, pageSize));
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(dao::getUserSummaries);
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.getUserSummariesPage(fromId, offset, limit));
+    }
+
+    @Override
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.searchUsers(prefix, limit));
+    }
+
+    @Override
+    public int countUsers() throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(dao::countUsers);
+    }
+
+    @Override
+    public long getChangeWatermark() throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(dao::getChangeWatermark);
+    }
+
+    @Override
+    public UserChanges getUsersChangedSince(long watermark) throws OurException
+    {
+        return bulkheads.get(OperationClass.READ).execute(() -> dao.getUsersChangedSince(watermark));
+    }
+
+    @Override
+    public User register(User user) throws OurException
+    {
+        return bulkheads.get(OperationClass.WRITE).execute(() -> dao.register(user));
+    }
+
+    @Override
+    public Profile registerAndLogin(User user) throws OurException
+    {
+        return bulkheads.get(OperationClass.WRITE).execute(() -> dao.registerAndLogin(user));
+    }
+
+    @Override
+    public boolean updateUser(User user) throws OurException
+    {
+        return bulkheads.get(OperationClass.WRITE).execute(() -> dao.updateUser(user));
+    }
+
+    @Override
+    public boolean deleteUser(int id) throws OurException
+    {
+        return bulkheads.get(OperationClass.WRITE).execute(() -> dao.deleteUser(id));
+    }
+
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        return bulkheads.get(OperationClass.BULK).execute(dao::getUsers);
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) throws OurException
+    {
+        return bulkheads.get(OperationClass.BULK).execute(() -> dao.updateUsers(users));
+    }
+
+    @Override
+    public BatchResult deleteUsers(int[] ids) throws OurException
+    {
+        return bulkheads.get(OperationClass.BULK).execute(() -> dao.deleteUsers(ids));
+    }
+
+    @Override
+    public UserCursor streamUsers(int fetchSize) throws OurException
+    {
+        Bulkhead bulk = bulkheads.get(OperationClass.BULK);
+        UserCursor cursor;
+
+        bulk.enter();
+
+        try
+        {
+            cursor = dao.streamUsers(fetchSize);
+        }
+        catch (OurException | RuntimeException ex)
+        {
+            bulk.exit();
+            throw ex;
+        }
+
+        return new UserCursor()
+        {
+            private boolean closed;
+
+            @Override
+            public boolean hasNext() throws OurException
+            {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public User next() throws OurException
+            {
+                return cursor.next();
+            }
+
+            @Override
+            public void close() throws OurException
+            {
+                if (closed)
+                {
+                    return;
+                }
+                closed = true;
+
+                try
+                {
+                    cursor.close();
+                }
+                finally
+                {
+                    bulk.exit();
+                }
+            }
+        };
+    }
+
+    /**
+     * Describes the state of every bulkhead in a single line, suitable for logging.
+     *
+     * @return the state of the admission control
+     */
+    @Override
+    public String toString()
+    {
+        return bulkheads.values().toString();
+    }
+}
@@ -0,0 +1,568 @@
+package dao;
+
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import model.BatchResult;
+import model.LoggedProfile;
+import model.Profile;
+import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
+
+/**
+ * Read-through cache placed in front of another ModelDAO implementation. Profiles are kept by ID in a size-bounded LRU map with a time to live, so repeated user lookups are answered from memory while writes made through this DAO update or invalidate the affected entries. Logins always check the password against the underlying DAO and refresh the cached profile, and the cache keeps its own copies of the profiles, so objects edited by the interface never change the cached data before they are saved.
+ *
+ * The summary listing used by the administrator window is cached as a whole and patched in place on register and delete, so refreshing the list after a change does not reload every user. Changes made by other clients are applied as they are read through getUsersChangedSince or pushed through applyChanges, and entries that no change reaches are reloaded once they expire.
+ */
+public class CachingModelDAO implements ModelDAO
+{
+
+    /**
+     * Cached profile together with the time it was loaded.
+     */
+    private static final class Entry
+    {
+
+        private final Profile profile;
+        private final long loadedAt;
+
+        private Entry(Profile profile, long loadedAt)
+        {
+            this.profile = profile;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final ModelDAO dao;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Integer, Entry> entries;
+    private ArrayList<UserSummary> summaries;
+    private long summariesLoadedAt;
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructs a new cache in front of the given DAO.
+     *
+     * @param dao the ModelDAO implementation that actually reads and writes the data
+     * @param maxSize the maximum number of profiles kept in the cache
+     * @param ttlMillis the time in milliseconds after which a cached entry is reloaded
+     */
+    public CachingModelDAO(ModelDAO dao, int maxSize, long ttlMillis)
+    {
+        this(dao, maxSize, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a new cache in front of the given DAO using a custom clock. This constructor is primarily intended for testing purposes, allowing entries to expire without waiting.
+     *
+     * @param dao the ModelDAO implementation that actually reads and writes the data
+     * @param maxSize the maximum number of profiles kept in the cache
+     * @param ttlMillis the time in milliseconds after which a cached entry is reloaded
+     * @param clock the source of the current time in nanoseconds
+     */
+    public CachingModelDAO(ModelDAO dao, int maxSize, long ttlMillis, LongSupplier clock)
+    {
+        this.dao = dao;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        long loadGeneration = currentGeneration();
+
+        // The password is always checked by the database, so a password changed or an account deleted elsewhere takes effect at once
+        Profile profile = dao.login(credential, password);
+
+        if (profile != null)
+        {
+            store(profile, loadGeneration);
+        }
+        else
+        {
+            evict(credential);
+        }
+        return profile;
+    }
+
+    @Override
+    public User getUser(int id) throws OurException
+    {
+        long loadGeneration;
+
+        synchronized (this)
+        {
+            Profile cached = lookup(id);
+
+            if (cached instanceof User)
+            {
+                hits.incrementAndGet();
+                return ((User) cached).copy();
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        User user = dao.getUser(id);
+
+        if (user != null)
+        {
+            store(user, loadGeneration);
+        }
+        return user;
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        long loadGeneration;
+
+        synchronized (this)
+        {
+            if (summaries != null && clock.getAsLong() - summariesLoadedAt < ttlNanos)
+            {
+                hits.incrementAndGet();
+                return new ArrayList<>(summaries);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        ArrayList<UserSummary> loaded = dao.getUserSummaries();
+
+        synchronized (this)
+        {
+            if (generation == loadGeneration)
+            {
+                summaries = new ArrayList<>(loaded);
+                summariesLoadedAt = clock.getAsLong();
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException
+    {
+        return dao.getUserSummariesPage(fromId, offset, limit);
+    }
+
+    @Override
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException
+    {
+        return dao.searchUsers(prefix, limit);
+    }
+
+    @Override
+    public int countUsers() throws OurException
+    {
+        return dao.countUsers();
+    }
+
+    @Override
+    public long getChangeWatermark() throws OurException
+    {
+        return dao.getChangeWatermark();
+    }
+
+    @Override
+    public UserChanges getUsersChangedSince(long watermark) throws OurException
+    {
+        long loadGeneration = currentGeneration();
+        UserChanges changes = dao.getUsersChangedSince(watermark);
+
+        synchronized (this)
+        {
+            // Changes read while a local write was in progress may be older than that write
+            if (generation != loadGeneration && changes.isComplete())
+            {
+                for (int id : changes.getDeletedIds())
+                {
+                    entries.remove(id);
+                }
+                for (User user : changes.getUsers())
+                {
+                    entries.remove(user.getId());
+                }
+                summaries = null;
+                return changes;
+            }
+
+            applyChanges(changes);
+        }
+        return changes;
+    }
+
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        long loadGeneration = currentGeneration();
+        ArrayList<User> users = dao.getUsers();
+        storeAll(users, loadGeneration);
+        return users;
+    }
+
+    @Override
+    public UserCursor streamUsers(int fetchSize) throws OurException
+    {
+        return dao.streamUsers(fetchSize);
+    }
+
+    @Override
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException
+    {
+        long loadGeneration = currentGeneration();
+        UserPage page = dao.getUsersPage(afterId, pageSize);
+        storeAll(page.getUsers(), loadGeneration);
+        return page;
+    }
+
+    @Override
+    public boolean updateUser(User user) throws OurException
+    {
+        try
+        {
+            boolean updated = dao.updateUser(user);
+
+            synchronized (this)
+            {
+                generation++;
+                entries.remove(user.getId());
+
+                if (updated)
+                {
+                    put(user);
+                }
+            }
+            return updated;
+        }
+        catch (OurException ex)
+        {
+            invalidate(user.getId());
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean deleteUser(int id) throws OurException
+    {
+        try
+        {
+            boolean deleted = dao.deleteUser(id);
+
+            synchronized (this)
+            {
+                generation++;
+                entries.remove(id);
+
+                if (deleted && summaries != null)
+                {
+                    summaries.removeIf(s -> s.getId() == id);
+                }
+            }
+            return deleted;
+        }
+        catch (OurException ex)
+        {
+            invalidate(id);
+            throw ex;
+        }
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) throws OurException
+    {
+        try
+        {
+            BatchResult result = dao.updateUsers(users);
+
+            synchronized (this)
+            {
+                generation++;
+
+                for (User user : users)
+                {
+                    entries.remove(user.getId());
+
+                    if (result.isSuccess(user.getId()))
+                    {
+                        put(user);
+                    }
+                }
+            }
+            return result;
+        }
+        catch (OurException ex)
+        {
+            for (User user : users)
+            {
+                invalidate(user.getId());
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public BatchResult deleteUsers(int[] ids) throws OurException
+    {
+        try
+        {
+            BatchResult result = dao.deleteUsers(ids);
+
+            synchronized (this)
+            {
+                generation++;
+
+                for (int id : ids)
+                {
+                    entries.remove(id);
+                }
+
+                if (summaries != null)
+                {
+                    summaries.removeIf(s -> result.isSuccess(s.getId()));
+                }
+            }
+            return result;
+        }
+        catch (OurException ex)
+        {
+            for (int id : ids)
+            {
+                invalidate(id);
+            }
+            throw ex;
+        }
+    }
+
+    @Override
+    public User register(User user) throws OurException
+    {
+        User registered = dao.register(user);
+
+        synchronized (this)
+        {
+            generation++;
+            put(registered);
+
+            if (summaries != null)
+            {
+                summaries.add(new UserSummary(registered.getId(), registered.getUsername()));
+            }
+        }
+        return registered;
+    }
+
+    @Override
+    public Profile registerAndLogin(User user) throws OurException
+    {
+        User registered = register(user);
+
+        LoggedProfile.getInstance().setProfile(registered);
+        return registered;
+    }
+
+    /**
+     * Applies changes pushed by the data store, such as the events of a ProfileChangeWatcher, so the cache stays current without waiting for its entries to expire. Changed users replace their cached entries and summaries, and deleted users are removed. Incomplete changes clear the whole cache, since the missing ones may concern any entry.
+     *
+     * @param changes the changes to apply, which must be newer than any data already cached
+     */
+    public synchronized void applyChanges(UserChanges changes)
+    {
+        if (!changes.isComplete())
+        {
+            clear();
+            return;
+        }
+
+        for (int id : changes.getDeletedIds())
+        {
+            entries.remove(id);
+        }
+
+        for (User user : changes.getUsers())
+        {
+            put(user);
+        }
+
+        if (summaries != null && !changes.isEmpty())
+        {
+            HashSet<Integer> changedIds = new HashSet<>(changes.getDeletedIds());
+            for (User user : changes.getUsers())
+            {
+                changedIds.add(user.getId());
+            }
+
+            summaries.removeIf(s -> changedIds.contains(s.getId()));
+            for (User user : changes.getUsers())
+            {
+                summaries.add(new UserSummary(user.getId(), user.getUsername()));
+            }
+        }
+    }
+
+    /**
+     * Removes every entry from the cache, including the cached summary listing. The hit, miss and eviction counters are kept.
+     */
+    public synchronized void clear()
+    {
+        generation++;
+        entries.clear();
+        summaries = null;
+    }
+
+    /**
+     * Removes a single profile from the cache and drops the cached summary listing, so both are reloaded on the next read.
+     *
+     * @param id the unique identifier of the profile to invalidate
+     */
+    public synchronized void invalidate(int id)
+    {
+        generation++;
+        entries.remove(id);
+        summaries = null;
+    }
+
+    /**
+     * Returns the number of reads answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of reads that had to be forwarded to the underlying DAO.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of profiles removed from the cache because it was full or their entry had expired.
+     *
+     * @return the number of evicted entries
+     */
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * Returns the number of profiles currently cached.
+     *
+     * @return the number of cached entries
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the cached profile with the given ID if it has not expired, removing it otherwise. Must be called while holding the lock of this cache.
+     */
+    private Profile lookup(int id)
+    {
+        Entry entry = entries.get(id);
+
+        if (entry == null)
+        {
+            return null;
+        }
+
+        if (clock.getAsLong() - entry.loadedAt >= ttlNanos)
+        {
+            entries.remove(id);
+            evictions.incrementAndGet();
+            return null;
+        }
+        return entry.profile;
+    }
+
+    /**
+     * Caches a profile loaded from the underlying DAO, unless a write happened while it was being loaded and the loaded copy may therefore be stale.
+     */
+    private synchronized void store(Profile profile, long loadGeneration)
+    {
+        if (generation == loadGeneration)
+        {
+            put(profile);
+        }
+    }
+
+    /**
+     * Caches all the users of a listing read from the underlying DAO, under the same staleness rule as a single profile.
+     */
+    private synchronized void storeAll(List<User> users, long loadGeneration)
+    {
+        if (generation == loadGeneration)
+        {
+            for (User user : users)
+            {
+                put(user);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of writes seen by this cache, which is recorded before a load to detect writes made while it was in progress.
+     */
+    private synchronized long currentGeneration()
+    {
+        return generation;
+    }
+
+    /**
+     * Adds or replaces a profile, evicting the least recently used profiles if the cache is over its size. A copy is cached, so later changes made by the caller to its own object, which may never be saved, do not reach the cache. Must be called while holding the lock of this cache.
+     */
+    private void put(Profile profile)
+    {
+        entries.remove(profile.getId());
+        entries.put(profile.getId(), new Entry(profile.copy(), clock.getAsLong()));
+
+        Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize)
+        {
+            eldest.next();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes the profile cached under a username or email after a failed login, since its password may have been changed or the account deleted by another client. Lookups are always by ID, so the entries are scanned instead of keeping credential indexes that only this rare case would use.
+     */
+    private synchronized void evict(String credential)
+    {
+        boolean byEmail = credential.contains("@");
+
+        if (entries.values().removeIf(entry -> credential.equals(byEmail ? entry.profile.getEmail() : entry.profile.getUsername())))
+        {
+            generation++;
+        }
+    }
+}
@@ -1,30 +1,69 @@
 package dao;
 
 import exception.OurException;
+import exception.ConcurrentUpdateException;
 import exception.ErrorMessages;
-import pool.ConnectionPool;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
 import model.Admin;
+import model.BatchResult;
 import model.Gender;
 import model.LoggedProfile;
 import model.Profile;
 import model.User;
-import pool.ConnectionThread;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
+import pool.ConnectionLease;
+import pool.ConnectionLeaseManager;
 
 /**
  * Database implementation of the ModelDAO interface. This class provides the concrete implementation for all data access operations including user registration, authentication, profile management, and administrative functions. It handles database connections, SQL execution, transaction management, and error handling for the entire application data layer.
  *
- * The class implements connection pooling with timeout mechanisms and ensures proper transaction handling for atomic operations.
+ * Connections are borrowed through the ConnectionLeaseManager and returned to the pool as soon as each operation finishes, ensuring proper transaction handling for atomic operations.
  *
  * @author Kevin, Alex, Victor, Ekaitz
  */
 public class DBImplementation implements ModelDAO
 {
 
-    private final int delay = 30;
+    /**
+     * Maximum number of IDs included in a single IN clause when deleting or loading users in batch.
+     */
+    private static final int ID_CHUNK_SIZE = 500;
+
+    /**
+     * Seconds after which a gap in the change log sequence is taken as a rolled back write. A sequence is taken when the entry is inserted, not when its transaction commits, so a younger gap may still be filled by a transaction in progress and the watermark does not move past it.
+     */
+    private static final int CHANGE_SAFETY_SECONDS = 30;
+
+    /**
+     * Names of the unique constraints of db_profile, reported by MySQL when a duplicated credential is inserted.
+     */
+    private static final String EMAIL_CONSTRAINT = "UK_PROFILE_EMAIL";
+    private static final String USERNAME_CONSTRAINT = "UK_PROFILE_USERNAME";
+
+    /**
+     * Columns of db_profile and db_user that can be changed by an update, keyed by the field name tracked by the profile.
+     */
+    private static final Map<String, String> PROFILE_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, String> USER_COLUMNS = new LinkedHashMap<>();
+
+    static
+    {
+        PROFILE_COLUMNS.put("password", "P_PASSWORD");
+        PROFILE_COLUMNS.put("name", "P_NAME");
+        PROFILE_COLUMNS.put("lastname", "P_LASTNAME");
+        PROFILE_COLUMNS.put("telephone", "P_TELEPHONE");
+        USER_COLUMNS.put("gender", "U_GENDER");
+        USER_COLUMNS.put("card", "U_CARD");
+    }
 
     /**
      * SQL Queries: INSERTS
@@ -35,20 +74,38 @@ public class DBImplementation implements ModelDAO
     /**
      * SQL Queries: SELECTS
      */
-    private final String SQLSELECT_USERS = "SELECT p.P_ID, p.P_EMAIL, p.P_USERNAME, p.P_PASSWORD, p.P_NAME, p.P_LASTNAME, p.P_TELEPHONE, u.U_GENDER, u.U_CARD FROM db_profile p JOIN db_user u ON p.P_ID = u.U_ID";
-    private final String SQLCHECK_CREDENTIALS = "SELECT P_EMAIL, P_USERNAME FROM db_profile WHERE P_EMAIL = ? OR P_USERNAME = ?";
-    private final String SQLSELECT_LOGIN = "SELECT p.P_ID, p.P_EMAIL, p.P_USERNAME, p.P_PASSWORD, p.P_NAME, p.P_LASTNAME, p.P_TELEPHONE, u.U_GENDER, u.U_CARD, a.A_CURRENT_ACCOUNT FROM db_profile p LEFT JOIN db_user u ON p.P_ID = u.U_ID LEFT JOIN db_admin a ON p.P_ID = a.A_ID WHERE (p.P_EMAIL = ? OR p.P_USERNAME = ?) AND p.P_PASSWORD = ?";
+    private final String SQLSELECT_USERS = "SELECT p.P_ID, p.P_EMAIL, p.P_USERNAME, p.P_PASSWORD, p.P_NAME, p.P_LASTNAME, p.P_TELEPHONE, p.P_VERSION, u.U_GENDER, u.U_CARD FROM db_profile p JOIN db_user u ON p.P_ID = u.U_ID";
+    private final String SQLSELECT_USERS_PAGE = SQLSELECT_USERS + " WHERE p.P_ID > ? ORDER BY p.P_ID LIMIT ?";
+    private final String SQLSELECT_USER = SQLSELECT_USERS + " WHERE p.P_ID = ?";
+    private final String SQLSELECT_USER_SUMMARIES = "SELECT p.P_ID, p.P_USERNAME FROM db_profile p JOIN db_user u ON p.P_ID = u.U_ID";
+    private final String SQLSELECT_USER_SUMMARIES_PAGE = SQLSELECT_USER_SUMMARIES + " WHERE p.P_ID > ? ORDER BY p.P_ID LIMIT ?";
+    private final String SQLSELECT_USER_ID_AFTER = "SELECT U_ID FROM db_user WHERE U_ID > ? ORDER BY U_ID LIMIT 1 OFFSET ?";
+    private final String SQLSELECT_USER_ID_BEFORE = "SELECT U_ID FROM db_user WHERE U_ID <= ? ORDER BY U_ID DESC LIMIT 1 OFFSET ?";
+    private final String SQLCOUNT_USERS = "SELECT COUNT(*) FROM db_user";
+    private final String SQLSEARCH_USERS = "(" + SQLSELECT_USER_SUMMARIES + " WHERE p.P_USERNAME LIKE ? ORDER BY p.P_USERNAME LIMIT ?)"
+            + " UNION (" + SQLSELECT_USER_SUMMARIES + " WHERE p.P_EMAIL LIKE ? ORDER BY p.P_USERNAME LIMIT ?)"
+            + " UNION (" + SQLSELECT_USER_SUMMARIES + " WHERE p.P_LASTNAME LIKE ? ORDER BY p.P_USERNAME LIMIT ?)"
+            + " ORDER BY P_USERNAME LIMIT ?";
+    private final String SQLSELECT_PROFILE_IDS = "SELECT P_ID FROM db_profile WHERE P_ID IN ";
+    private final String SQLSELECT_USER_EXISTS = "SELECT U_ID FROM db_user WHERE U_ID = ?";
+    private final String SQLSELECT_USERS_IN = SQLSELECT_USERS + " WHERE p.P_ID IN ";
+    private final String SQLSELECT_CHANGES = "SELECT C_SEQ, C_PROFILE_ID, C_DELETED, C_TIME < NOW(3) - INTERVAL ? SECOND AS C_SETTLED FROM db_change_log WHERE C_SEQ > ? ORDER BY C_SEQ";
+    private final String SQLSELECT_CHANGE_WATERMARK = "SELECT GREATEST(COALESCE((SELECT MAX(C_SEQ) FROM db_change_log WHERE C_TIME < NOW(3) - INTERVAL ? SECOND), 0), S_PRUNED_SEQ) FROM db_change_log_state";
+    private final String SQLSELECT_PRUNED_SEQ = "SELECT S_PRUNED_SEQ FROM db_change_log_state";
+    private final String SQLSELECT_LOGIN_EMAIL = "SELECT p.P_ID, p.P_EMAIL, p.P_USERNAME, p.P_PASSWORD, p.P_NAME, p.P_LASTNAME, p.P_TELEPHONE, p.P_VERSION, u.U_GENDER, u.U_CARD, a.A_CURRENT_ACCOUNT FROM db_profile p LEFT JOIN db_user u ON p.P_ID = u.U_ID LEFT JOIN db_admin a ON p.P_ID = a.A_ID WHERE p.P_EMAIL = ?";
+    private final String SQLSELECT_LOGIN_USERNAME = "SELECT p.P_ID, p.P_EMAIL, p.P_USERNAME, p.P_PASSWORD, p.P_NAME, p.P_LASTNAME, p.P_TELEPHONE, p.P_VERSION, u.U_GENDER, u.U_CARD, a.A_CURRENT_ACCOUNT FROM db_profile p LEFT JOIN db_user u ON p.P_ID = u.U_ID LEFT JOIN db_admin a ON p.P_ID = a.A_ID WHERE p.P_USERNAME = ?";
 
     /**
      * SQL Queries: UPDATES
      */
-    private final String SQLUPDATE_PROFILE = "UPDATE db_profile SET P_PASSWORD = ?, P_NAME = ?, P_LASTNAME = ?, P_TELEPHONE = ? WHERE P_ID = ?";
+    private final String SQLUPDATE_PROFILE = "UPDATE db_profile SET P_PASSWORD = ?, P_NAME = ?, P_LASTNAME = ?, P_TELEPHONE = ?, P_VERSION = P_VERSION + 1 WHERE P_ID = ? AND P_VERSION = ? AND EXISTS (SELECT 1 FROM db_user WHERE U_ID = P_ID)";
     private final String SQLUPDATE_USER = "UPDATE db_user SET U_GENDER = ?, U_CARD = ? WHERE U_ID = ?";
 
     /**
      * SQL Queries: DELETES
      */
     private final String SQLDELETE_USER = "DELETE FROM db_profile WHERE P_ID = ?";
+    private final String SQLDELETE_USERS = "DELETE FROM db_profile WHERE P_ID IN ";
 
     /**
      * Inserts a new user into the database with transaction support. This method performs an atomic operation that inserts user data into both the profile and user tables within a single transaction. If any part fails, the entire transaction is rolled back.
@@ -107,6 +164,11 @@ public class DBImplementation implements ModelDAO
                 }
             }
         }
+        catch (SQLIntegrityConstraintViolationException ex)
+        {
+            rollBack(con);
+            throw new OurException(duplicateCredential(ex));
+        }
         catch (SQLException ex)
         {
             rollBack(con);
@@ -119,6 +181,27 @@ public class DBImplementation implements ModelDAO
         return id;
     }
 
+    /**
+     * Translates a unique constraint violation raised while inserting a profile into the message of the credential that was already taken. MySQL reports the name of the violated key in the error message, so the constraint names of the schema identify which credential is duplicated.
+     *
+     * @param ex the exception raised by the insertion
+     * @return the error message describing the duplicated credential, or the generic registration error if another constraint failed
+     */
+    private String duplicateCredential(SQLIntegrityConstraintViolationException ex)
+    {
+        String message = ex.getMessage() == null ? "" : ex.getMessage();
+
+        if (message.contains(EMAIL_CONSTRAINT))
+        {
+            return ErrorMessages.EMAIL_EXISTS;
+        }
+        else if (message.contains(USERNAME_CONSTRAINT))
+        {
+            return ErrorMessages.USERNAME_EXISTS;
+        }
+        return ErrorMessages.REGISTER_USER;
+    }
+
     /**
      * Retrieves all users from the database. This method executes a query to fetch all user records with their complete profile information including personal details and preferences.
      *
@@ -136,20 +219,7 @@ public class DBImplementation implements ModelDAO
         {
             while (rs.next())
             {
-                String genderValue = rs.getString("U_GENDER");
-                Gender gender = genderValue != null ? Gender.valueOf(genderValue) : Gender.OTHER;
-                User user = new User(
-                        rs.getInt("P_ID"),
-                        rs.getString("P_EMAIL"),
-                        rs.getString("P_USERNAME"),
-                        rs.getString("P_PASSWORD"),
-                        rs.getString("P_NAME"),
-                        rs.getString("P_LASTNAME"),
-                        rs.getString("P_TELEPHONE"),
-                        gender,
-                        rs.getString("U_CARD")
-                );
-                users.add(user);
+                users.add(readUser(rs));
             }
         }
         catch (SQLException ex)
@@ -160,355 +230,1186 @@ public class DBImplementation implements ModelDAO
     }
 
     /**
-     * Updates an existing user's information in the database with transaction support. This method performs an atomic operation that updates user data in both the profile and user tables within a single transaction.
-     *
-     * @param con the database connection to use for the operation
-     * @param user the User object containing updated user data
-     * @return true if the update operation was successful, false otherwise
-     * @throws OurException if the update fails due to SQL errors, constraint violations, or transaction issues
+     * Cursor over the rows of a streamed user query. It owns the lease, statement and result set of the query and releases all of them when closed.
      */
-    private boolean update(Connection con, User user) throws OurException
+    private class ResultSetUserCursor implements UserCursor
     {
-        boolean success = false;
 
-        try (
-                PreparedStatement stmtProfile = con.prepareStatement(SQLUPDATE_PROFILE);
-                PreparedStatement stmtUser = con.prepareStatement(SQLUPDATE_USER))
-        {
-            con.setAutoCommit(false);
+        private final ConnectionLease lease;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private boolean advanced = false;
+        private boolean available = false;
 
-            stmtProfile.setString(1, user.getPassword());
-            stmtProfile.setString(2, user.getName());
-            stmtProfile.setString(3, user.getLastname());
-            stmtProfile.setString(4, user.getTelephone());
-            stmtProfile.setInt(5, user.getId());
+        /**
+         * Constructs a new cursor over an already executed query.
+         *
+         * @param lease the lease of the connection running the query
+         * @param stmt the statement of the query
+         * @param rs the result set being streamed
+         */
+        ResultSetUserCursor(ConnectionLease lease, PreparedStatement stmt, ResultSet rs)
+        {
+            this.lease = lease;
+            this.stmt = stmt;
+            this.rs = rs;
+        }
 
-            int profileUpdated = stmtProfile.executeUpdate();
+        @Override
+        public boolean hasNext() throws OurException
+        {
+            if (!advanced)
+            {
+                try
+                {
+                    available = rs.next();
+                    advanced = true;
+                }
+                catch (SQLException ex)
+                {
+                    throw new OurException(ErrorMessages.GET_USERS);
+                }
+            }
+            return available;
+        }
 
-            stmtUser.setString(1, user.getGender().name());
-            stmtUser.setString(2, user.getCard());
-            stmtUser.setInt(3, user.getId());
+        @Override
+        public User next() throws OurException
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
 
-            int userUpdated = stmtUser.executeUpdate();
+            advanced = false;
 
-            if (profileUpdated == 0 || userUpdated == 0)
+            try
             {
-                throw new SQLException(ErrorMessages.UPDATE_USER);
+                return readUser(rs);
+            }
+            catch (SQLException ex)
+            {
+                throw new OurException(ErrorMessages.GET_USERS);
             }
-
-            con.commit();
-            success = true;
         }
-        catch (SQLException ex)
-        {
-            rollBack(con);
-            throw new OurException(ErrorMessages.UPDATE_USER);
-        } finally
+
+        @Override
+        public void close() throws OurException
         {
-            resetAutoCommit(con);
+            try
+            {
+                rs.close();
+                stmt.close();
+            }
+            catch (SQLException ex)
+            {
+                throw new OurException(ErrorMessages.GET_USERS);
+            } finally
+            {
+                lease.close();
+            }
         }
-
-        return success;
     }
 
     /**
-     * Deletes a user from the database by their unique identifier. This method removes a user record from the system based on the provided user ID.
+     * Opens a streamed query over all users. The statement is forward only and read only, and with cursor fetch enabled on the connection the server sends the rows in batches of the given fetch size as the cursor advances.
      *
-     * @param con the database connection to use for the operation
-     * @param userId the unique identifier of the user to be deleted
-     * @return true if the deletion was successful, false if no user was found with the specified ID
-     * @throws OurException if the deletion operation fails due to SQL errors or database constraints
+     * @param lease the lease of the connection to use, which is owned by the returned cursor
+     * @param fetchSize the number of rows fetched per batch
+     * @return a UserCursor over all users
+     * @throws OurException if the query cannot be executed
      */
-    private boolean delete(Connection con, int userId) throws OurException
+    private UserCursor openUsersCursor(ConnectionLease lease, int fetchSize) throws OurException
     {
-        try (PreparedStatement stmt = con.prepareStatement(SQLDELETE_USER))
+        PreparedStatement stmt = null;
+
+        try
         {
-            stmt.setInt(1, userId);
-            return stmt.executeUpdate() > 0;
+            stmt = lease.getConnection().prepareStatement(SQLSELECT_USERS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+
+            return new ResultSetUserCursor(lease, stmt, stmt.executeQuery());
         }
         catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.DELETE_USER);
+            try
+            {
+                if (stmt != null)
+                {
+                    stmt.close();
+                }
+            }
+            catch (SQLException e)
+            {
+                // The original error is the one reported
+            }
+            throw new OurException(ErrorMessages.GET_USERS);
         }
     }
 
     /**
-     * Authenticates a user by verifying credentials against the database. This method checks if the provided credential (email or username) and password match an existing user record and returns the appropriate profile type (User or Admin) upon successful authentication.
+     * Retrieves one page of users from the database ordered by ID. This method reads one row more than the page size to find out whether another page exists, seeking directly to the cursor through the primary key.
      *
      * @param con the database connection to use for the operation
-     * @param credential the user's email or username for identification
-     * @param password the user's password for authentication
-     * @return the authenticated user's Profile object (User or Admin) if credentials are valid, null otherwise
-     * @throws OurException if the authentication process fails due to SQL errors or data retrieval issues
+     * @param afterId the ID after which the page starts
+     * @param pageSize the maximum number of users of the page
+     * @return the UserPage containing the users read
+     * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    private Profile loginProfile(Connection con, String credential, String password) throws OurException
+    private UserPage selectUsersPage(Connection con, int afterId, int pageSize) throws OurException
     {
-        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_LOGIN))
+        ArrayList<User> users = new ArrayList<>();
+
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_USERS_PAGE))
         {
-            stmt.setString(1, credential);
-            stmt.setString(2, credential);
-            stmt.setString(3, password);
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, pageSize + 1);
 
             try (ResultSet rs = stmt.executeQuery())
             {
-                if (rs.next())
+                while (rs.next())
                 {
-                    String gender = rs.getString("U_GENDER");
-                    String admin = rs.getString("A_CURRENT_ACCOUNT");
-
-                    if (gender != null)
-                    {
-                        return new User(
-                                rs.getInt("P_ID"),
-                                rs.getString("P_EMAIL"),
-                                rs.getString("P_USERNAME"),
-                                rs.getString("P_PASSWORD"),
-                                rs.getString("P_NAME"),
-                                rs.getString("P_LASTNAME"),
-                                rs.getString("P_TELEPHONE"),
-                                Gender.valueOf(gender),
-                                rs.getString("U_CARD")
-                        );
-                    }
-                    else if (admin != null)
-                    {
-                        return new Admin(
-                                rs.getInt("P_ID"),
-                                rs.getString("P_EMAIL"),
-                                rs.getString("P_USERNAME"),
-                                rs.getString("P_PASSWORD"),
-                                rs.getString("P_NAME"),
-                                rs.getString("P_LASTNAME"),
-                                rs.getString("P_TELEPHONE"),
-                                admin
-                        );
-                    }
+                    users.add(readUser(rs));
                 }
-
-                return null;
             }
         }
         catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.LOGIN);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
+        return UserPage.fromFetched(users, afterId, pageSize);
     }
 
     /**
-     * Checks if the provided email or username already exists in the database. This method verifies the uniqueness of user credentials during registration to prevent duplicate accounts.
+     * Retrieves the identifier and username of all users from the database. This method reads only those two columns, avoiding the transfer of personal data that is not displayed.
      *
      * @param con the database connection to use for the operation
-     * @param email the email address to check for existence
-     * @param username the username to check for existence
-     * @return a HashMap indicating which credentials already exist with keys "email" and "username" and boolean values
-     * @throws OurException if the verification process fails due to SQL errors
+     * @return an ArrayList containing a UserSummary for each user
+     * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    private HashMap<String, Boolean> checkCredentialsExistence(Connection con, String email, String username) throws OurException
+    private ArrayList<UserSummary> selectUserSummaries(Connection con) throws OurException
     {
-        HashMap<String, Boolean> exists = new HashMap<>();
-        exists.put("email", false);
-        exists.put("username", false);
+        ArrayList<UserSummary> summaries = new ArrayList<>();
 
-        try (PreparedStatement stmt = con.prepareStatement(SQLCHECK_CREDENTIALS))
+        try (
+                PreparedStatement stmt = con.prepareStatement(SQLSELECT_USER_SUMMARIES);
+                ResultSet rs = stmt.executeQuery())
         {
-            stmt.setString(1, email);
-            stmt.setString(2, username);
-
-            try (ResultSet rs = stmt.executeQuery())
+            while (rs.next())
             {
-                while (rs.next())
-                {
-                    if (email.equals(rs.getString("P_EMAIL")))
-                    {
-                        exists.put("email", true);
-                    }
-                    if (username.equals(rs.getString("P_USERNAME")))
-                    {
-                        exists.put("username", true);
-                    }
-                }
+                summaries.add(new UserSummary(rs.getInt("P_ID"), rs.getString("P_USERNAME")));
             }
         }
         catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.VERIFY_CREDENTIALS);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
-        return exists;
+        return summaries;
     }
 
     /**
-     * Waits for a database connection to become available with timeout protection. This method implements a polling mechanism to wait for a connection thread to become ready, preventing indefinite blocking.
+     * Retrieves the identifier and username of one page of users from the database ordered by ID. The page seeks to the cursor through the primary key and reads only the rows of the page.
      *
-     * @param thread the ConnectionThread instance to wait for
-     * @return the established database connection
-     * @throws InterruptedException if the waiting thread is interrupted
-     * @throws OurException if the connection timeout is exceeded
+     * @param con the database connection to use for the operation
+     * @param afterId the ID after which the page starts
+     * @param limit the maximum number of users to read
+     * @return an ArrayList containing a UserSummary for each user of the page
+     * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    private Connection waitForConnection(ConnectionThread thread) throws InterruptedException, OurException
+    private ArrayList<UserSummary> selectUserSummariesPage(Connection con, int afterId, int limit) throws OurException
     {
-        int attempts = 0;
+        ArrayList<UserSummary> summaries = new ArrayList<>();
 
-        while (!thread.isReady() && attempts < 50)
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_USER_SUMMARIES_PAGE))
         {
-            Thread.sleep(10);
-            attempts++;
-        }
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
 
-        if (!thread.isReady())
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                while (rs.next())
+                {
+                    summaries.add(new UserSummary(rs.getInt("P_ID"), rs.getString("P_USERNAME")));
+                }
+            }
+        }
+        catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.TIMEOUT);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
-
-        return thread.getConnection();
+        return summaries;
     }
 
     /**
-     * Rolls back the current database transaction. This method provides safe transaction rollback with proper error handling for scenarios where database operations fail.
+     * Finds the ID after which a page starts a number of users away from a cursor. Only the primary key of db_user is read, so counting the users skipped never touches the profile rows.
      *
-     * @param con the database connection to roll back the transaction on
-     * @throws OurException if the rollback operation fails
+     * @param con the database connection to use for the operation
+     * @param fromId the ID after which the offset is counted
+     * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+     * @return the ID after which the page starts, 0 if it starts at the beginning or Integer.MAX_VALUE if it starts past the end
+     * @throws OurException if the query execution fails
      */
-    private void rollBack(Connection con) throws OurException
+    private int seekUserId(Connection con, int fromId, int offset) throws OurException
     {
-        try
+        if (offset == 0)
         {
-            if (con != null)
+            return fromId;
+        }
+
+        try (PreparedStatement stmt = con.prepareStatement(offset > 0 ? SQLSELECT_USER_ID_AFTER : SQLSELECT_USER_ID_BEFORE))
+        {
+            stmt.setInt(1, fromId);
+            stmt.setInt(2, offset > 0 ? offset - 1 : -offset);
+
+            try (ResultSet rs = stmt.executeQuery())
             {
-                con.rollback();
+                if (rs.next())
+                {
+                    return rs.getInt("U_ID");
+                }
+                return offset > 0 ? Integer.MAX_VALUE : 0;
             }
         }
         catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.ROLLBACK);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
     }
 
     /**
-     * Resets the auto-commit mode of the database connection to true. This method ensures that the connection returns to its default auto-commit state after transaction operations are completed.
+     * Searches the users whose username, email or lastname starts with a prefix, ignoring case and accents as the default collation of the columns does. Each column is matched in its own branch of a UNION with LIKE 'prefix%', which MySQL resolves as a range on the index of that column, and every branch keeps only its first users by username up to the limit, so the union holds the first users by username of all the matches.
      *
-     * @param con the database connection to reset
-     * @throws OurException if resetting auto-commit fails
+     * @param con the database connection to use for the operation
+     * @param prefix the text the matching columns must start with
+     * @param limit the maximum number of users to read
+     * @return an ArrayList containing a UserSummary for each matching user, ordered by username
+     * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    private void resetAutoCommit(Connection con) throws OurException
+    private ArrayList<UserSummary> selectUsersByPrefix(Connection con, String prefix, int limit) throws OurException
     {
-        try
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        try (PreparedStatement stmt = con.prepareStatement(SQLSEARCH_USERS))
         {
-            if (con != null)
+            for (int i = 0; i < 3; i++)
             {
-                con.setAutoCommit(true);
+                stmt.setString(i * 2 + 1, pattern);
+                stmt.setInt(i * 2 + 2, limit);
+            }
+            stmt.setInt(7, limit);
+
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                while (rs.next())
+                {
+                    summaries.add(new UserSummary(rs.getInt("P_ID"), rs.getString("P_USERNAME")));
+                }
             }
         }
         catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.RESET_AUTOCOMMIT);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
+        return summaries;
     }
 
     /**
-     * Authenticates a user with the provided credentials. This method verifies user identity by checking the provided credential and password against stored user data and sets the logged-in profile upon successful authentication.
+     * Counts the users in the database. Only the primary key of db_user is read, so the count never touches the profile rows.
      *
-     * @param credential the user's username or email address used for identification
-     * @param password the user's password for authentication
-     * @return the authenticated user's Profile object containing user information and access privileges, or null if authentication fails
-     * @throws OurException if authentication fails due to database errors or system issues
+     * @param con the database connection to use for the operation
+     * @return the number of users
+     * @throws OurException if the query execution fails
      */
-    @Override
-    public Profile login(String credential, String password) throws OurException
+    private int selectUserCount(Connection con) throws OurException
     {
-        try (Connection con = ConnectionPool.getConnection())
+        try (
+                PreparedStatement stmt = con.prepareStatement(SQLCOUNT_USERS);
+                ResultSet rs = stmt.executeQuery())
         {
-            Profile profile = loginProfile(con, credential, password);
-            if (profile != null)
-            {
-                LoggedProfile.getInstance().setProfile(profile);
-            }
-            return profile;
+            return rs.next() ? rs.getInt(1) : 0;
         }
-        catch (Exception ex)
+        catch (SQLException ex)
         {
-            throw new OurException(ErrorMessages.LOGIN);
+            throw new OurException(ErrorMessages.GET_USERS);
         }
     }
 
     /**
-     * Registers a new user in the system with duplicate credential checking. This method validates credential uniqueness, creates a new user account, and returns the registered user with their system-generated identifier.
+     * Reads the current change watermark, which is the sequence of the last entry of the change log older than the safety margin. The change log is filled by triggers on db_profile, so every insert, update and delete of a profile is recorded no matter which statement performed it; the newer entries are left above the watermark since a transaction still in progress may yet commit a lower sequence.
      *
-     * @param user the User object containing all registration information
-     * @return the registered User object with the generated ID and system-assigned values
-     * @throws OurException if registration fails due to duplicate credentials, database constraints, or system errors
+     * @param con the database connection to use for the operation
+     * @return the sequence of the last settled change, or 0 if the change log is empty
+     * @throws OurException if the query execution fails
      */
-    @Override
-    public User register(User user) throws OurException
+    private long selectChangeWatermark(Connection con) throws OurException
     {
-        ConnectionThread thread = new ConnectionThread(delay);
-        thread.start();
-
-        try
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_CHANGE_WATERMARK))
         {
-            Connection con = waitForConnection(thread);
-            Map<String, Boolean> existing = checkCredentialsExistence(con, user.getEmail(), user.getUsername());
-
-            if (existing.get("email") && existing.get("username"))
-            {
-                throw new OurException("Both email and username already exist");
-            }
-            else if (existing.get("email"))
-            {
-                throw new OurException("Email already exists");
-            }
-            else if (existing.get("username"))
-            {
-                throw new OurException("Username already exists");
-            }
+            stmt.setInt(1, CHANGE_SAFETY_SECONDS);
 
-            int id = insert(con, user);
-
-            if (id == -1)
+            try (ResultSet rs = stmt.executeQuery())
             {
-                throw new OurException(ErrorMessages.REGISTER_USER);
+                return rs.next() ? rs.getLong(1) : 0;
             }
-
-            user.setId(id);
-
-            return user;
         }
-        catch (InterruptedException ex)
-        {
-            throw new OurException(ErrorMessages.REGISTER_USER);
-        } finally
+        catch (SQLException ex)
         {
-            thread.releaseConnection();
+            throw new OurException(ErrorMessages.GET_USERS);
         }
     }
 
     /**
-     * Retrieves a list of all users from the system. This method provides access to the complete user database, typically used by administrative interfaces for user management operations.
+     * Reads the users changed after a watermark from the change log. Entries are read in sequence order up to the first gap newer than the safety margin, since the transaction holding the missing sequence may still commit, and the entries after it are read again by the next call. Several entries of the same profile are collapsed into its latest state, and only the users that still exist are loaded, through their primary key in chunks. If the entries after the watermark have already been pruned, the changes are returned as incomplete so the listing is loaded again.
      *
-     * @return an ArrayList containing all User objects in the system
-     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     * @param con the database connection to use for the operation
+     * @param watermark the sequence after which changes are read
+     * @return the UserChanges with the changed users, the deleted IDs and the sequence of the last entry read
+     * @throws OurException if the query execution fails or data retrieval errors occur
      */
-    @Override
-    public ArrayList<User> getUsers() throws OurException
+    private UserChanges selectChanges(Connection con, long watermark) throws OurException
     {
-        ConnectionThread thread = new ConnectionThread(delay);
-        thread.start();
+        LinkedHashMap<Integer, Boolean> deleted = new LinkedHashMap<>();
+        long last = watermark;
 
-        try
+        try (
+                PreparedStatement pruned = con.prepareStatement(SQLSELECT_PRUNED_SEQ);
+                ResultSet rs = pruned.executeQuery())
         {
-            Connection con = waitForConnection(thread);
-            return selectUsers(con);
+            if (rs.next() && rs.getLong(1) > watermark)
+            {
+                return new UserChanges(new ArrayList<>(), new ArrayList<>(), selectChangeWatermark(con), false);
+            }
         }
-        catch (InterruptedException ex)
+        catch (SQLException ex)
         {
             throw new OurException(ErrorMessages.GET_USERS);
-        } finally
-        {
-            thread.releaseConnection();
         }
-    }
 
-    /**
-     * Updates an existing user's information in the system. This method persists changes made to a user's profile data, ensuring that modifications are saved to the database.
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_CHANGES))
+        {
+            stmt.setInt(1, CHANGE_SAFETY_SECONDS);
+            stmt.setLong(2, watermark);
+
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                while (rs.next())
+                {
+                    long seq = rs.getLong("C_SEQ");
+
+                    if (seq != last + 1 && !rs.getBoolean("C_SETTLED"))
+                    {
+                        break;
+                    }
+                    last = seq;
+                    deleted.put(rs.getInt("C_PROFILE_ID"), rs.getBoolean("C_DELETED"));
+                }
+            }
+
+            ArrayList<Integer> changedIds = new ArrayList<>();
+            ArrayList<Integer> deletedIds = new ArrayList<>();
+            for (Map.Entry<Integer, Boolean> entry : deleted.entrySet())
+            {
+                (entry.getValue() ? deletedIds : changedIds).add(entry.getKey());
+            }
+
+            ArrayList<User> users = new ArrayList<>();
+            for (int from = 0; from < changedIds.size(); from += ID_CHUNK_SIZE)
+            {
+                int to = Math.min(from + ID_CHUNK_SIZE, changedIds.size());
+
+                int count = paddedCount(to - from);
+
+                try (PreparedStatement select = con.prepareStatement(SQLSELECT_USERS_IN + placeholders(count)))
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        select.setInt(i + 1, changedIds.get(Math.min(from + i, to - 1)));
+                    }
+
+                    try (ResultSet rs = select.executeQuery())
+                    {
+                        while (rs.next())
+                        {
+                            users.add(readUser(rs));
+                        }
+                    }
+                }
+            }
+
+            return new UserChanges(users, deletedIds, last);
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Retrieves a single user from the database by their unique identifier.
+     *
+     * @param con the database connection to use for the operation
+     * @param id the unique identifier of the user
+     * @return the User object with the given ID, or null if no user was found
+     * @throws OurException if the query execution fails or data retrieval errors occur
+     */
+    private User selectUser(Connection con, int id) throws OurException
+    {
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_USER))
+        {
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                return rs.next() ? readUser(rs) : null;
+            }
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    /**
+     * Builds a User from the current row of a result set containing the profile and user columns.
+     *
+     * @param rs the result set positioned on the row to read
+     * @return the User object built from the row
+     * @throws SQLException if a column cannot be read
+     */
+    private User readUser(ResultSet rs) throws SQLException
+    {
+        String genderValue = rs.getString("U_GENDER");
+        Gender gender = genderValue != null ? Gender.valueOf(genderValue) : Gender.OTHER;
+        User user = new User(
+                rs.getInt("P_ID"),
+                rs.getString("P_EMAIL"),
+                rs.getString("P_USERNAME"),
+                rs.getString("P_PASSWORD"),
+                rs.getString("P_NAME"),
+                rs.getString("P_LASTNAME"),
+                rs.getString("P_TELEPHONE"),
+                gender,
+                rs.getString("U_CARD")
+        );
+
+        user.setVersion(rs.getInt("P_VERSION"));
+        user.markClean();
+        return user;
+    }
+
+    /**
+     * Updates an existing user's information in the database with transaction support. Only the columns whose value changed since the user was loaded are written, the statement of db_user is skipped when none of its columns changed, and a user without changes is not sent to the database at all.
+     *
+     * The profile row is only updated if it belongs to a user and its version is still the one read when the user was loaded, and the version is incremented with the update, so a concurrent modification by another session is detected instead of overwritten.
+     *
+     * @param con the database connection to use for the operation
+     * @param user the User object containing the updated information
+     * @return true if the update was successful or there was nothing to update
+     * @throws ConcurrentUpdateException if the user was modified by another session after it was loaded
+     * @throws OurException if the update fails due to SQL errors, constraint violations, or transaction issues
+     */
+    private boolean update(Connection con, User user) throws OurException
+    {
+        Map<String, String> changed = user.getChangedValues();
+        List<String> profileFields = new ArrayList<>();
+        List<String> userFields = new ArrayList<>();
+
+        // Fields are taken in column order, so the same set of fields always builds the same SQL and reuses its pooled statement
+        for (String field : PROFILE_COLUMNS.keySet())
+        {
+            if (changed.containsKey(field))
+            {
+                profileFields.add(field);
+            }
+        }
+        for (String field : USER_COLUMNS.keySet())
+        {
+            if (changed.containsKey(field))
+            {
+                userFields.add(field);
+            }
+        }
+
+        if (profileFields.isEmpty() && userFields.isEmpty())
+        {
+            return true;
+        }
+
+        boolean conflict = false;
+
+        try
+        {
+            con.setAutoCommit(false);
+
+            String profileSql = "UPDATE db_profile SET " + setClause(PROFILE_COLUMNS, profileFields, "P_VERSION = P_VERSION + 1") + " WHERE P_ID = ? AND P_VERSION = ? AND EXISTS (SELECT 1 FROM db_user WHERE U_ID = P_ID)";
+
+            try (PreparedStatement stmt = con.prepareStatement(profileSql))
+            {
+                int index = bindValues(stmt, profileFields, changed);
+                stmt.setInt(index, user.getId());
+                stmt.setInt(index + 1, user.getVersion());
+
+                if (stmt.executeUpdate() == 0)
+                {
+                    conflict = userExists(con, user.getId());
+                    throw new SQLException(ErrorMessages.UPDATE_USER);
+                }
+            }
+
+            if (!userFields.isEmpty())
+            {
+                try (PreparedStatement stmt = con.prepareStatement("UPDATE db_user SET " + setClause(USER_COLUMNS, userFields) + " WHERE U_ID = ?"))
+                {
+                    stmt.setInt(bindValues(stmt, userFields, changed), user.getId());
+
+                    if (stmt.executeUpdate() == 0)
+                    {
+                        throw new SQLException(ErrorMessages.UPDATE_USER);
+                    }
+                }
+            }
+
+            con.commit();
+            user.setVersion(user.getVersion() + 1);
+            user.markClean();
+        }
+        catch (SQLException ex)
+        {
+            rollBack(con);
+
+            if (conflict)
+            {
+                throw new ConcurrentUpdateException(user.getId());
+            }
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        } finally
+        {
+            resetAutoCommit(con);
+        }
+
+        return true;
+    }
+
+    /**
+     * Builds the SET clause of an UPDATE statement for the given fields.
+     *
+     * @param columns the column of each field of the table
+     * @param fields the fields to write, each one bound to a parameter
+     * @param extra additional assignments appended without parameters
+     * @return the assignments separated by commas
+     */
+    private String setClause(Map<String, String> columns, List<String> fields, String... extra)
+    {
+        StringJoiner set = new StringJoiner(", ");
+
+        for (String field : fields)
+        {
+            set.add(columns.get(field) + " = ?");
+        }
+        for (String assignment : extra)
+        {
+            set.add(assignment);
+        }
+        return set.toString();
+    }
+
+    /**
+     * Binds the new values of the given fields to the first parameters of a statement.
+     *
+     * @param stmt the statement built with setClause
+     * @param fields the fields of the SET clause
+     * @param values the new value of each field
+     * @return the index of the next parameter to bind
+     * @throws SQLException if a parameter cannot be bound
+     */
+    private int bindValues(PreparedStatement stmt, List<String> fields, Map<String, String> values) throws SQLException
+    {
+        int index = 1;
+
+        for (String field : fields)
+        {
+            stmt.setString(index++, values.get(field));
+        }
+        return index;
+    }
+
+    /**
+     * Checks if a user exists, which tells a concurrent modification apart from a deleted user, or from the ID of an administrator, when a versioned update matches no rows.
+     *
+     * @param con the database connection to use for the operation
+     * @param id the unique identifier of the user
+     * @return true if the user exists, false otherwise
+     * @throws SQLException if the query fails
+     */
+    private boolean userExists(Connection con, int id) throws SQLException
+    {
+        try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_USER_EXISTS))
+        {
+            stmt.setInt(1, id);
+
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                return rs.next();
+            }
+        }
+    }
+
+    /**
+     * Deletes a user from the database by their unique identifier. This method removes a user record from the system based on the provided user ID.
+     *
+     * @param con the database connection to use for the operation
+     * @param userId the unique identifier of the user to be deleted
+     * @return true if the deletion was successful, false if no user was found with the specified ID
+     * @throws OurException if the deletion operation fails due to SQL errors or database constraints
+     */
+    private boolean delete(Connection con, int userId) throws OurException
+    {
+        try (PreparedStatement stmt = con.prepareStatement(SQLDELETE_USER))
+        {
+            stmt.setInt(1, userId);
+            return stmt.executeUpdate() > 0;
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.DELETE_USER);
+        }
+    }
+
+    /**
+     * Updates several users in the database within a single transaction. This method queues the profile and user updates of every user as JDBC batches and executes them together, so the whole list costs two batch executions instead of two statements per user. The profile update is the success condition: it only matches profiles that belong to a user and whose version has not changed since they were loaded, so every profile it updates also gets its user row updated, while the remaining IDs are reported as failed and left untouched as the rest of the batch is committed.
+     *
+     * @param con the database connection to use for the operation
+     * @param users the list of User objects containing updated user data
+     * @return a BatchResult indicating, for each user ID, if the update affected its records
+     * @throws OurException if the batch fails due to SQL errors, constraint violations, or transaction issues
+     */
+    private BatchResult updateBatch(Connection con, List<User> users) throws OurException
+    {
+        BatchResult result = new BatchResult();
+
+        try (
+                PreparedStatement stmtProfile = con.prepareStatement(SQLUPDATE_PROFILE);
+                PreparedStatement stmtUser = con.prepareStatement(SQLUPDATE_USER))
+        {
+            con.setAutoCommit(false);
+
+            for (User user : users)
+            {
+                stmtProfile.setString(1, user.getPassword());
+                stmtProfile.setString(2, user.getName());
+                stmtProfile.setString(3, user.getLastname());
+                stmtProfile.setString(4, user.getTelephone());
+                stmtProfile.setInt(5, user.getId());
+                stmtProfile.setInt(6, user.getVersion());
+                stmtProfile.addBatch();
+            }
+
+            int[] profileUpdated = stmtProfile.executeBatch();
+
+            // Users whose version no longer matches are left untouched
+            List<User> current = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++)
+            {
+                if (isAffected(profileUpdated[i]))
+                {
+                    User user = users.get(i);
+                    current.add(user);
+
+                    stmtUser.setString(1, user.getGender().name());
+                    stmtUser.setString(2, user.getCard());
+                    stmtUser.setInt(3, user.getId());
+                    stmtUser.addBatch();
+                }
+            }
+
+            if (!current.isEmpty())
+            {
+                stmtUser.executeBatch();
+            }
+
+            con.commit();
+
+            // The profile update already bumped the version, and it only matches profiles that have a user row
+            HashSet<Integer> updatedIds = new HashSet<>();
+            for (User user : current)
+            {
+                user.setVersion(user.getVersion() + 1);
+                user.markClean();
+                updatedIds.add(user.getId());
+            }
+
+            for (User user : users)
+            {
+                result.add(user.getId(), updatedIds.contains(user.getId()));
+            }
+        }
+        catch (SQLException ex)
+        {
+            rollBack(con);
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        } finally
+        {
+            resetAutoCommit(con);
+        }
+
+        return result;
+    }
+
+    /**
+     * Deletes several users from the database within a single transaction. The IDs are processed in chunks, and for each chunk the existing profiles are locked and read before a single DELETE with an IN clause removes them, so the result can tell which IDs were actually deleted.
+     *
+     * @param con the database connection to use for the operation
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a BatchResult indicating, for each ID, if a user was deleted
+     * @throws OurException if the batch fails due to SQL errors, database constraints, or transaction issues
+     */
+    private BatchResult deleteBatch(Connection con, int[] ids) throws OurException
+    {
+        BatchResult result = new BatchResult();
+
+        try
+        {
+            con.setAutoCommit(false);
+
+            for (int from = 0; from < ids.length; from += ID_CHUNK_SIZE)
+            {
+                int to = Math.min(from + ID_CHUNK_SIZE, ids.length);
+                int count = paddedCount(to - from);
+                String placeholders = placeholders(count);
+                HashSet<Integer> existing = new HashSet<>();
+
+                try (PreparedStatement stmt = con.prepareStatement(SQLSELECT_PROFILE_IDS + placeholders + " FOR UPDATE"))
+                {
+                    for (int i = 0; i < count; i++)
+                    {
+                        stmt.setInt(i + 1, ids[Math.min(from + i, to - 1)]);
+                    }
+
+                    try (ResultSet rs = stmt.executeQuery())
+                    {
+                        while (rs.next())
+                        {
+                            existing.add(rs.getInt("P_ID"));
+                        }
+                    }
+                }
+
+                if (!existing.isEmpty())
+                {
+                    try (PreparedStatement stmt = con.prepareStatement(SQLDELETE_USERS + placeholders))
+                    {
+                        for (int i = 0; i < count; i++)
+                        {
+                            stmt.setInt(i + 1, ids[Math.min(from + i, to - 1)]);
+                        }
+                        stmt.executeUpdate();
+                    }
+                }
+
+                for (int i = from; i < to; i++)
+                {
+                    result.add(ids[i], existing.contains(ids[i]));
+                }
+            }
+
+            con.commit();
+        }
+        catch (SQLException ex)
+        {
+            rollBack(con);
+            throw new OurException(ErrorMessages.DELETE_USER);
+        } finally
+        {
+            resetAutoCommit(con);
+        }
+
+        return result;
+    }
+
+    /**
+     * Rounds the number of IDs of an IN clause up to the next power of two, capped at the chunk size. The extra placeholders are bound to the last ID again, which does not change the rows matched, and only a few distinct IN statements exist, so they stay in the prepared statement pool instead of evicting the other statements.
+     *
+     * @param count the number of IDs to bind, at most the chunk size
+     * @return the number of placeholders to use
+     */
+    private int paddedCount(int count)
+    {
+        int padded = count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+        return Math.min(padded, ID_CHUNK_SIZE);
+    }
+
+    /**
+     * Builds the parameter list of an IN clause with the given number of placeholders.
+     *
+     * @param count the number of placeholders
+     * @return a string in the form "(?, ?, ?)"
+     */
+    private String placeholders(int count)
+    {
+        StringBuilder sb = new StringBuilder("(");
+
+        for (int i = 0; i < count; i++)
+        {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * Checks if an update count returned by a batch execution means that the statement affected at least one row.
+     *
+     * @param count the update count of a batched statement
+     * @return true if rows were affected or the driver did not report the count, false otherwise
+     */
+    private boolean isAffected(int count)
+    {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+
+    /**
+     * Authenticates a user by verifying credentials against the database. This method looks the profile up through the unique index of the email when the credential contains an @, or of the username otherwise, and then compares the password of that single row, returning the appropriate profile type (User or Admin) upon successful authentication.
+     *
+     * @param con the database connection to use for the operation
+     * @param credential the user's email or username for identification
+     * @param password the user's password for authentication
+     * @return the authenticated user's Profile object (User or Admin) if credentials are valid, null otherwise
+     * @throws OurException if the authentication process fails due to SQL errors or data retrieval issues
+     */
+    private Profile loginProfile(Connection con, String credential, String password) throws OurException
+    {
+        try (PreparedStatement stmt = con.prepareStatement(credential.contains("@") ? SQLSELECT_LOGIN_EMAIL : SQLSELECT_LOGIN_USERNAME))
+        {
+            stmt.setString(1, credential);
+
+            try (ResultSet rs = stmt.executeQuery())
+            {
+                if (rs.next() && rs.getString("P_PASSWORD").equals(password))
+                {
+                    String gender = rs.getString("U_GENDER");
+                    String admin = rs.getString("A_CURRENT_ACCOUNT");
+                    Profile profile = null;
+
+                    if (gender != null)
+                    {
+                        profile = new User(
+                                rs.getInt("P_ID"),
+                                rs.getString("P_EMAIL"),
+                                rs.getString("P_USERNAME"),
+                                rs.getString("P_PASSWORD"),
+                                rs.getString("P_NAME"),
+                                rs.getString("P_LASTNAME"),
+                                rs.getString("P_TELEPHONE"),
+                                Gender.valueOf(gender),
+                                rs.getString("U_CARD")
+                        );
+                    }
+                    else if (admin != null)
+                    {
+                        profile = new Admin(
+                                rs.getInt("P_ID"),
+                                rs.getString("P_EMAIL"),
+                                rs.getString("P_USERNAME"),
+                                rs.getString("P_PASSWORD"),
+                                rs.getString("P_NAME"),
+                                rs.getString("P_LASTNAME"),
+                                rs.getString("P_TELEPHONE"),
+                                admin
+                        );
+                    }
+
+                    if (profile != null)
+                    {
+                        profile.setVersion(rs.getInt("P_VERSION"));
+                        profile.markClean();
+                    }
+                    return profile;
+                }
+
+                return null;
+            }
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.LOGIN);
+        }
+    }
+
+    /**
+     * Rolls back the current database transaction. This method provides safe transaction rollback with proper error handling for scenarios where database operations fail.
+     *
+     * @param con the database connection to roll back the transaction on
+     * @throws OurException if the rollback operation fails
+     */
+    private void rollBack(Connection con) throws OurException
+    {
+        try
+        {
+            if (con != null)
+            {
+                con.rollback();
+            }
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.ROLLBACK);
+        }
+    }
+
+    /**
+     * Resets the auto-commit mode of the database connection to true. This method ensures that the connection returns to its default auto-commit state after transaction operations are completed.
+     *
+     * @param con the database connection to reset
+     * @throws OurException if resetting auto-commit fails
+     */
+    private void resetAutoCommit(Connection con) throws OurException
+    {
+        try
+        {
+            if (con != null)
+            {
+                con.setAutoCommit(true);
+            }
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException(ErrorMessages.RESET_AUTOCOMMIT);
+        }
+    }
+
+    /**
+     * Authenticates a user with the provided credentials. This method verifies user identity by checking the provided credential and password against stored user data and sets the logged-in profile upon successful authentication.
+     *
+     * @param credential the user's username or email address used for identification
+     * @param password the user's password for authentication
+     * @return the authenticated user's Profile object containing user information and access privileges, or null if authentication fails
+     * @throws OurException if the login query fails, or unchanged if no connection can be obtained from the pool, so a busy pool is not reported as wrong credentials
+     */
+    @Override
+    public Profile login(String credential, String password) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("login"))
+        {
+            Profile profile = loginProfile(lease.getConnection(), credential, password);
+            if (profile != null)
+            {
+                LoggedProfile.getInstance().setProfile(profile);
+            }
+            return profile;
+        }
+    }
+
+    /**
+     * Registers a new user in the system in a single transactional write. Credential uniqueness is enforced by the unique constraints of the profile table instead of a previous query, so this method creates the new user account and returns the registered user with their system-generated identifier.
+     *
+     * @param user the User object containing all registration information
+     * @return the registered User object with the generated ID and system-assigned values
+     * @throws OurException if registration fails due to duplicate credentials, database constraints, or system errors
+     */
+    @Override
+    public User register(User user) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("register"))
+        {
+            int id = insert(lease.getConnection(), user);
+
+            if (id == -1)
+            {
+                throw new OurException(ErrorMessages.REGISTER_USER);
+            }
+
+            user.setId(id);
+            user.markClean();
+
+            return user;
+        }
+    }
+
+    /**
+     * Registers a new user and logs them in without a second query. The profile returned by the insertion already contains every field of the new account, so it is set directly as the logged profile.
+     *
+     * @param user the User object containing all registration information
+     * @return the registered User as the authenticated Profile
+     * @throws OurException if registration fails due to duplicate credentials, database constraints, or system errors
+     */
+    @Override
+    public Profile registerAndLogin(User user) throws OurException
+    {
+        User registered = register(user);
+
+        LoggedProfile.getInstance().setProfile(registered);
+        return registered;
+    }
+
+    /**
+     * Retrieves a list of all users from the system. This method provides access to the complete user database, typically used by administrative interfaces for user management operations.
+     *
+     * @return an ArrayList containing all User objects in the system
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<User> getUsers() throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUsers"))
+        {
+            return selectUsers(lease.getConnection());
+        }
+    }
+
+    /**
+     * Opens a cursor that streams all users from the system in batches. The connection lease is held by the cursor and returned to the pool when the cursor is closed.
+     *
+     * @param fetchSize the number of users to read from the database per batch
+     * @return a UserCursor over all users, which must be closed after use
+     * @throws OurException if the cursor cannot be opened due to database connectivity issues or data access errors
+     */
+    @Override
+    public UserCursor streamUsers(int fetchSize) throws OurException
+    {
+        ConnectionLease lease = ConnectionLeaseManager.acquire("streamUsers");
+
+        try
+        {
+            return openUsersCursor(lease, fetchSize);
+        }
+        catch (OurException ex)
+        {
+            lease.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Retrieves one page of users from the system ordered by ID. This method lets administrative interfaces browse large user populations without loading them all at once.
+     *
+     * @param afterId the ID of the last user of the previous page, or 0 to start from the beginning
+     * @param pageSize the maximum number of users to return
+     * @return the UserPage containing the users read and the cursor for the next page
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUsersPage"))
+        {
+            return selectUsersPage(lease.getConnection(), afterId, pageSize);
+        }
+    }
+
+    /**
+     * Retrieves the identifier and username of every user in the system. This method is used to fill user selection components with minimal data.
+     *
+     * @return an ArrayList containing a UserSummary for each user in the system
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUserSummaries"))
+        {
+            return selectUserSummaries(lease.getConnection());
+        }
+    }
+
+    /**
+     * Retrieves the identifier and username of one page of users ordered by ID, starting a number of users away from the given cursor.
+     *
+     * @param fromId the ID after which the offset is counted
+     * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each user of the page
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUserSummariesPage"))
+        {
+            return selectUserSummariesPage(lease.getConnection(), seekUserId(lease.getConnection(), fromId, offset), limit);
+        }
+    }
+
+    /**
+     * Searches the users whose username, email or lastname starts with the given prefix.
+     *
+     * @param prefix the text the matching columns must start with
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each matching user, ordered by username
+     * @throws OurException if the search fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("searchUsers"))
+        {
+            return selectUsersByPrefix(lease.getConnection(), prefix, limit);
+        }
+    }
+
+    /**
+     * Counts the users in the database.
+     *
+     * @return the number of users
+     * @throws OurException if the count fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public int countUsers() throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("countUsers"))
+        {
+            return selectUserCount(lease.getConnection());
+        }
+    }
+
+    /**
+     * Returns the current change watermark of the database.
+     *
+     * @return the sequence of the most recent settled change, or 0 if nothing has been recorded yet
+     * @throws OurException if the watermark cannot be read due to database connectivity issues or data access errors
+     */
+    @Override
+    public long getChangeWatermark() throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getChangeWatermark"))
+        {
+            return selectChangeWatermark(lease.getConnection());
+        }
+    }
+
+    /**
+     * Retrieves the users created, modified or deleted after the given watermark. Administrators, which are also recorded in the change log, are not included among the changed users.
+     *
+     * @param watermark the watermark returned by getChangeWatermark or by a previous call to this method
+     * @return the UserChanges with the changed users, the deleted IDs and the watermark for the next call
+     * @throws OurException if the changes cannot be read due to database connectivity issues or data access errors
+     */
+    @Override
+    public UserChanges getUsersChangedSince(long watermark) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUsersChangedSince"))
+        {
+            return selectChanges(lease.getConnection(), watermark);
+        }
+    }
+
+    /**
+     * Retrieves the complete record of a single user by their unique identifier.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return the User object with the given ID, or null if no user was found
+     * @throws OurException if the user retrieval operation fails due to database connectivity issues or data access errors
+     */
+    @Override
+    public User getUser(int id) throws OurException
+    {
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("getUser"))
+        {
+            return selectUser(lease.getConnection(), id);
+        }
+    }
+
+    /**
+     * Updates an existing user's information in the system. This method persists changes made to a user's profile data, ensuring that modifications are saved to the database.
      *
      * @param user the User object containing updated information to be saved
      * @return true if the update operation was successful, false if no changes were made or the operation did not affect any records
@@ -517,20 +1418,51 @@ public class DBImplementation implements ModelDAO
     @Override
     public boolean updateUser(User user) throws OurException
     {
-        ConnectionThread thread = new ConnectionThread(delay);
-        thread.start();
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("updateUser"))
+        {
+            return update(lease.getConnection(), user);
+        }
+    }
 
-        try
+    /**
+     * Updates several users in the system with a single transaction. This method is used for bulk maintenance of user accounts and reports which users could be updated.
+     *
+     * @param users the list of User objects containing updated information to be saved
+     * @return a BatchResult indicating, for each user ID, if the update affected a record
+     * @throws OurException if the batch update fails due to database constraints violations or data access issues
+     */
+    @Override
+    public BatchResult updateUsers(List<User> users) throws OurException
+    {
+        if (users.isEmpty())
         {
-            Connection con = waitForConnection(thread);
-            return update(con, user);
+            return new BatchResult();
         }
-        catch (InterruptedException ex)
+
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("updateUsers"))
         {
-            throw new OurException(ErrorMessages.UPDATE_USER);
-        } finally
+            return updateBatch(lease.getConnection(), users);
+        }
+    }
+
+    /**
+     * Deletes several users from the system with a single transaction. This method is used for bulk cleanup of user accounts and reports which users were deleted.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a BatchResult indicating, for each ID, if a user was deleted
+     * @throws OurException if the batch deletion fails due to database constraints, referential integrity issues, or data access errors
+     */
+    @Override
+    public BatchResult deleteUsers(int[] ids) throws OurException
+    {
+        if (ids.length == 0)
+        {
+            return new BatchResult();
+        }
+
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("deleteUsers"))
         {
-            thread.releaseConnection();
+            return deleteBatch(lease.getConnection(), ids);
         }
     }
 
@@ -544,20 +1476,9 @@ public class DBImplementation implements ModelDAO
     @Override
     public boolean deleteUser(int id) throws OurException
     {
-        ConnectionThread thread = new ConnectionThread(delay);
-        thread.start();
-
-        try
-        {
-            Connection con = waitForConnection(thread);
-            return delete(con, id);
-        }
-        catch (InterruptedException ex)
-        {
-            throw new OurException(ErrorMessages.DELETE_USER);
-        } finally
+        try (ConnectionLease lease = ConnectionLeaseManager.acquire("deleteUser"))
         {
-            thread.releaseConnection();
+            return delete(lease.getConnection(), id);
         }
     }
 }
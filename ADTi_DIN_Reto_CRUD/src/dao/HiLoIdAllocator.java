@@ -0,0 +1,83 @@
+package dao;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Hands out integer identifiers from blocks reserved in advance. Each block is reserved with a single atomic operation on a shared counter, and its identifiers are then handed out in-process without locks, so concurrent inserts only contend on the counter once per block.
+ *
+ * Identifiers of a block that are not used before the application stops are simply skipped, so a restarted application always continues from the counter and never reuses an identifier.
+ */
+public class HiLoIdAllocator
+{
+
+    /**
+     * Range of identifiers reserved from the counter.
+     */
+    private static final class Block
+    {
+
+        private final AtomicInteger next;
+        private final int last;
+
+        private Block(int first, int last)
+        {
+            this.next = new AtomicInteger(first);
+            this.last = last;
+        }
+    }
+
+    private final IntUnaryOperator reserver;
+    private final int blockSize;
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(1, 0));
+    private final Object refillLock = new Object();
+
+    /**
+     * Constructs a new allocator over a shared counter.
+     *
+     * @param reserver the operation that atomically increments the shared counter by the given block size and returns its new value, which is the last identifier of the reserved block
+     * @param blockSize the number of identifiers reserved at once
+     */
+    public HiLoIdAllocator(IntUnaryOperator reserver, int blockSize)
+    {
+        this.reserver = reserver;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the next free identifier, reserving a new block from the counter when the current one is exhausted.
+     *
+     * @return a unique identifier
+     */
+    public int nextId()
+    {
+        while (true)
+        {
+            Block block = current.get();
+            int id = block.next.getAndIncrement();
+
+            if (id <= block.last)
+            {
+                return id;
+            }
+
+            synchronized (refillLock)
+            {
+                if (current.get() == block)
+                {
+                    int last = reserver.applyAsInt(blockSize);
+                    current.set(new Block(last - blockSize + 1, last));
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the remaining identifiers of the current block, so the next call reserves a new block from the counter. This is used when the counter has been moved forward externally.
+     */
+    public void reset()
+    {
+        current.set(new Block(1, 0));
+    }
+}
@@ -2,9 +2,17 @@ package dao;
 
 import exception.OurException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import model.BatchResult;
 import model.Gender;
+import model.LoggedProfile;
 import model.Profile;
 import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
 
 /**
  * Mock implementation of ModelDAO for testing purposes. This class provides a simulated data access layer that can be configured to return predefined responses or throw exceptions for testing various application scenarios without requiring a real database connection.
@@ -71,6 +79,24 @@ public class MockModelDAO implements ModelDAO
         return mockUser;
     }
 
+    /**
+     * Simulates a combined registration and login by returning the predefined mock user and setting it as the logged profile.
+     *
+     * @param user the user to register (ignored in mock implementation)
+     * @return the predefined mock user
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public Profile registerAndLogin(User user) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+        LoggedProfile.getInstance().setProfile(mockUser);
+        return mockUser;
+    }
+
     /**
      * Simulates user login by returning a predefined mock profile.
      *
@@ -105,6 +131,235 @@ public class MockModelDAO implements ModelDAO
         return mockUsers;
     }
 
+    /**
+     * Simulates streaming all users by iterating over the predefined list of mock users.
+     *
+     * @param fetchSize the batch size (ignored in mock implementation)
+     * @return a UserCursor over the mock users
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public UserCursor streamUsers(int fetchSize) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        Iterator<User> iterator = mockUsers.iterator();
+
+        return new UserCursor()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public User next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+
+    /**
+     * Simulates paginated user retrieval over the predefined list of mock users.
+     *
+     * @param afterId the ID after which the page starts
+     * @param pageSize the maximum number of users of the page
+     * @return a UserPage with the mock users whose ID is greater than afterId
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        ArrayList<User> fetched = new ArrayList<>();
+
+        for (User user : mockUsers)
+        {
+            if (user.getId() > afterId && fetched.size() <= pageSize)
+            {
+                fetched.add(user);
+            }
+        }
+        return UserPage.fromFetched(fetched, afterId, pageSize);
+    }
+
+    /**
+     * Simulates retrieving the summaries of all users from the predefined list of mock users.
+     *
+     * @return an ArrayList containing a UserSummary for each mock user
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        for (User user : mockUsers)
+        {
+            summaries.add(new UserSummary(user.getId(), user.getUsername()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Simulates retrieving the summaries of one page of users from the predefined list of mock users.
+     *
+     * @param fromId the ID after which the offset is counted
+     * @param offset the number of users between the cursor and the start of the page, negative to count backwards
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each mock user of the page
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        ArrayList<User> sorted = new ArrayList<>(mockUsers);
+        sorted.sort(Comparator.comparingInt(User::getId));
+
+        int first = 0;
+        while (first < sorted.size() && sorted.get(first).getId() <= fromId)
+        {
+            first++;
+        }
+        first += offset;
+
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        for (int i = Math.max(0, first); i < sorted.size() && summaries.size() < limit; i++)
+        {
+            summaries.add(new UserSummary(sorted.get(i).getId(), sorted.get(i).getUsername()));
+        }
+        return summaries;
+    }
+
+    /**
+     * Simulates searching the mock users whose username, email or lastname starts with the given prefix, ignoring case, ordered by username.
+     *
+     * @param prefix the text the matching fields must start with
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each matching mock user
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+        String lower = prefix.toLowerCase();
+
+        for (User user : mockUsers)
+        {
+            if (user.getUsername().toLowerCase().startsWith(lower) || user.getEmail().toLowerCase().startsWith(lower) || user.getLastname().toLowerCase().startsWith(lower))
+            {
+                summaries.add(new UserSummary(user.getId(), user.getUsername()));
+            }
+        }
+        summaries.sort(Comparator.comparing(UserSummary::getUsername, String.CASE_INSENSITIVE_ORDER));
+        return new ArrayList<>(summaries.subList(0, Math.min(limit, summaries.size())));
+    }
+
+    /**
+     * Simulates counting the users of the predefined list of mock users.
+     *
+     * @return the number of mock users
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public int countUsers() throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+        return mockUsers.size();
+    }
+
+    /**
+     * Simulates reading the change watermark, which is always 0 since the mock data never changes.
+     *
+     * @return 0
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public long getChangeWatermark() throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+        return 0;
+    }
+
+    /**
+     * Simulates reading the changes after a watermark, which are always empty since the mock data never changes.
+     *
+     * @param watermark the watermark of the previous read
+     * @return an empty UserChanges keeping the given watermark
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public UserChanges getUsersChangedSince(long watermark) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+        return new UserChanges(new ArrayList<>(), new ArrayList<>(), watermark);
+    }
+
+    /**
+     * Simulates retrieving a single user by searching the predefined list of mock users.
+     *
+     * @param id the user ID to search for
+     * @return the mock user with the given ID, or null if none matches
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public User getUser(int id) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        for (User user : mockUsers)
+        {
+            if (user.getId() == id)
+            {
+                return user;
+            }
+        }
+        return null;
+    }
+
     /**
      * Simulates user update operation by always returning true.
      *
@@ -122,6 +377,54 @@ public class MockModelDAO implements ModelDAO
         return true;
     }
 
+    /**
+     * Simulates a batch user update by marking every user as updated.
+     *
+     * @param users the users to update
+     * @return a BatchResult with every user ID marked as successful
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public BatchResult updateUsers(List<User> users) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        BatchResult result = new BatchResult();
+
+        for (User user : users)
+        {
+            result.add(user.getId(), true);
+        }
+        return result;
+    }
+
+    /**
+     * Simulates a batch user deletion by marking positive IDs as deleted.
+     *
+     * @param ids the user IDs to delete
+     * @return a BatchResult with positive IDs marked as successful and the rest as failed
+     * @throws OurException if configured to throw exceptions
+     */
+    @Override
+    public BatchResult deleteUsers(int[] ids) throws OurException
+    {
+        if (shouldThrowException)
+        {
+            throw exceptionToThrow;
+        }
+
+        BatchResult result = new BatchResult();
+
+        for (int id : ids)
+        {
+            result.add(id, id > 0);
+        }
+        return result;
+    }
+
     /**
      * Simulates user deletion by returning true for positive IDs.
      *
@@ -1,9 +1,15 @@
 package dao;
 
+import exception.ConcurrentUpdateException;
 import exception.OurException;
 import java.util.ArrayList;
+import java.util.List;
+import model.BatchResult;
 import model.Profile;
 import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
 
 /**
  * Data Access Object interface defining the contract for all data operations in the application. This interface specifies the methods required for user management, authentication, and profile operations that must be implemented by any data access implementation.
@@ -25,10 +31,93 @@ public interface ModelDAO
     public ArrayList<User> getUsers() throws OurException;
 
     /**
-     * Updates an existing user's information in the data store. This method should persist changes made to a user's profile data, ensuring that all modifications are saved and reflected in the storage.
+     * Opens a cursor that streams all users from the data store. This method should read users from the database in batches of the given size instead of materializing the whole result, so callers can start processing users before the listing is complete.
+     *
+     * @param fetchSize the number of users to read from the database per batch
+     * @return a UserCursor over all users, which must be closed after use
+     * @throws OurException if the cursor cannot be opened due to data access errors, connectivity issues, or system failures
+     */
+    public UserCursor streamUsers(int fetchSize) throws OurException;
+
+    /**
+     * Retrieves one page of users ordered by their unique identifier. This method should read only the users whose ID is greater than the given cursor, using the identifier index instead of skipping rows, so every page costs the same regardless of its position in the listing.
+     *
+     * @param afterId the ID of the last user of the previous page, or 0 to start from the beginning
+     * @param pageSize the maximum number of users to return
+     * @return the UserPage containing the users read and the cursor for the next page
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException;
+
+    /**
+     * Retrieves the identifier and username of every user in the data store. This method should read only those two fields, so that listings used for selection stay small in memory and on the wire.
+     *
+     * @return an ArrayList containing a UserSummary for each user in the system
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> getUserSummaries() throws OurException;
+
+    /**
+     * Retrieves the identifier and username of one page of users ordered by their unique identifier, starting a number of users after or before a known cursor. With an offset of 0 the page starts right after the cursor; otherwise this method should first count the users from the cursor along the identifier index alone, without reading any profile, and then read the page by seeking to the identifier found.
+     *
+     * @param fromId the ID after which the offset is counted, which is usually the last ID of a loaded page, 0 for the beginning or Integer.MAX_VALUE for the end of the listing
+     * @param offset the number of users between the cursor and the start of the page, negative to start the page that many users before the cursor
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each user of the page, ordered by ID
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException;
+
+    /**
+     * Searches the users whose username, email or lastname starts with the given prefix. This method should match the prefix through the indexes of those fields and read at most the given number of users, so every search costs a small bounded query no matter how many users exist.
+     *
+     * @param prefix the text the matching fields must start with
+     * @param limit the maximum number of users to return
+     * @return an ArrayList containing a UserSummary for each matching user, ordered by username
+     * @throws OurException if the search fails due to data access errors, connectivity issues, or system failures
+     */
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException;
+
+    /**
+     * Counts the users in the data store. This method should count through an index without reading the user data.
+     *
+     * @return the number of users
+     * @throws OurException if the count fails due to data access errors, connectivity issues, or system failures
+     */
+    public int countUsers() throws OurException;
+
+    /**
+     * Returns the current change watermark of the data store. A listing loaded after reading this watermark can be kept up to date with getUsersChangedSince, since every later write has a greater change position.
+     *
+     * @return the position of the most recent change, or 0 if nothing has been recorded yet
+     * @throws OurException if the watermark cannot be read due to data access errors, connectivity issues, or system failures
+     */
+    public long getChangeWatermark() throws OurException;
+
+    /**
+     * Retrieves the users created, modified or deleted after the given watermark. This method should only read the changes recorded after that position, so its cost depends on the number of changes and not on the number of users.
+     *
+     * @param watermark the watermark returned by getChangeWatermark or by a previous call to this method
+     * @return the UserChanges with the changed users, the deleted IDs and the watermark for the next call
+     * @throws OurException if the changes cannot be read due to data access errors, connectivity issues, or system failures
+     */
+    public UserChanges getUsersChangedSince(long watermark) throws OurException;
+
+    /**
+     * Retrieves the complete record of a single user by their unique identifier. This method is used to load the full user data only when it is needed, for example after selecting a user from a summary listing.
+     *
+     * @param id the unique identifier of the user to retrieve
+     * @return the User object with the given ID, or null if no user was found
+     * @throws OurException if the user retrieval operation fails due to data access errors, connectivity issues, or system failures
+     */
+    public User getUser(int id) throws OurException;
+
+    /**
+     * Updates an existing user's information in the data store. This method should persist changes made to a user's profile data, ensuring that all modifications are saved and reflected in the storage. The update must only be applied if the stored version of the user is still the one it was loaded with, incrementing it on success.
      *
      * @param user the User object containing updated information to be saved
      * @return true if the update operation was successful and affected at least one record, false if no changes were made or no user was found
+     * @throws ConcurrentUpdateException if the user was modified by another session after it was loaded
      * @throws OurException if the update operation fails due to validation errors, data integrity constraints, data access issues, or system failures
      */
     public boolean updateUser(User user) throws OurException;
@@ -42,6 +131,24 @@ public interface ModelDAO
      */
     public boolean deleteUser(int id) throws OurException;
 
+    /**
+     * Updates several users in a single operation. This method should persist the changes of all the given users with as few round trips as possible, reporting for each user whether it was updated.
+     *
+     * @param users the list of User objects containing updated information to be saved
+     * @return a BatchResult indicating, for each user ID, if the update affected a record
+     * @throws OurException if the batch update fails as a whole due to data integrity constraints, data access issues, or system failures
+     */
+    public BatchResult updateUsers(List<User> users) throws OurException;
+
+    /**
+     * Deletes several users in a single operation by their unique identifiers. This method should remove all the given users with as few round trips as possible, reporting for each ID whether a user was deleted.
+     *
+     * @param ids the unique identifiers of the users to be deleted
+     * @return a BatchResult indicating, for each ID, if a user was deleted
+     * @throws OurException if the batch deletion fails as a whole due to referential integrity issues, data access errors, or system failures
+     */
+    public BatchResult deleteUsers(int[] ids) throws OurException;
+
     /**
      * Authenticates a user using provided credentials. This method should verify user identity by checking the provided credential (which can be username or email) and password against stored user data.
      *
@@ -60,4 +167,13 @@ public interface ModelDAO
      * @throws OurException if the registration process fails due to duplicate credentials, validation errors, data integrity constraints, data access issues, or system failures
      */
     public User register(User user) throws OurException;
+
+    /**
+     * Registers a new user and logs them in with the same operation. This method should build the authenticated profile from the inserted data and set it as the logged profile, instead of querying the profile that was just stored again.
+     *
+     * @param user the User object containing all registration information
+     * @return the registered and authenticated Profile with the generated identifier
+     * @throws OurException if the registration process fails due to duplicate credentials, validation errors, data integrity constraints, data access issues, or system failures
+     */
+    public Profile registerAndLogin(User user) throws OurException;
 }
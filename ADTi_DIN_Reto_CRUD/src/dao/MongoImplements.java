@@ -1,128 +1,587 @@
 package dao;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
 import config.MongoConnectionManager;
+import config.MongoIndexManager;
 import dao.ModelDAO;
+import exception.ConcurrentUpdateException;
+import exception.ErrorMessages;
 import exception.OurException;
 import java.util.ArrayList;
-import model.Admin;
-import model.Gender;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import model.BatchResult;
 import model.LoggedProfile;
 import model.Profile;
 import model.User;
+import model.UserChanges;
+import model.UserPage;
+import model.UserSummary;
+import org.bson.BsonTimestamp;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.conversions.Bson;
 
 public class MongoImplements implements ModelDAO {
 
+    private static final List<String> UPDATABLE_FIELDS = Arrays.asList("password", "name", "lastname", "telephone", "gender", "card");
+
+    // Margen en segundos para que una escritura con timestamp ya asignado termine de confirmarse
+    private static final int CHANGE_SAFETY_SECONDS = 2;
+
     private final MongoCollection<Document> mongo;
+    private final MongoCollection<Profile> profiles;
+    private final MongoCollection<Document> counters;
+    private final MongoCollection<Document> tombstones;
+    private final HiLoIdAllocator ids;
 
     public MongoImplements() {
-        this.mongo = MongoConnectionManager.getDatabase().getCollection("profiles");
+        // Los perfiles se decodifican directamente a User/Admin con ProfileCodec
+        this.mongo = MongoConnectionManager.getDatabase().getCollection("profiles")
+                .withCodecRegistry(CodecRegistries.fromRegistries(
+                        CodecRegistries.fromProviders(new ProfileCodecProvider()),
+                        MongoClientSettings.getDefaultCodecRegistry()));
+        this.profiles = mongo.withDocumentClass(Profile.class);
+
+        // Los _id se reservan por bloques en la coleccion counters
+        this.counters = MongoConnectionManager.getDatabase().getCollection("counters");
+        this.ids = new HiLoIdAllocator(this::reserveIds,
+                Integer.parseInt(ResourceBundle.getBundle("config.classConfig").getString("MongoIdBlockSize")));
+        syncCounter();
+
+        // Cada borrado deja una lapida con su fecha para la sincronizacion de cambios
+        this.tombstones = MongoConnectionManager.getDatabase().getCollection(MongoIndexManager.TOMBSTONES_COLLECTION);
+    }
+
+    public void warmUp() {
+        // Comprueba que el servidor responde y deja abierta una conexion del pool
+        MongoConnectionManager.getDatabase().runCommand(new Document("ping", 1));
+
+        // Las mismas busquedas que el login, para cargar la coleccion y sus indices unicos
+        mongo.find(Filters.eq("username", "")).hintString(MongoIndexManager.USERNAME_INDEX).projection(Projections.include("_id")).first();
+        mongo.find(Filters.eq("email", "")).hintString(MongoIndexManager.EMAIL_INDEX).projection(Projections.include("_id")).first();
     }
 
     @Override
     public Profile login(String credential, String password) throws OurException {
-        String genderStr;
-        Gender gender = null;
-        Document doc = mongo.find(
-                Filters.and(
-                        Filters.or(Filters.eq("username", credential), Filters.eq("email", credential)),
-                        Filters.eq("password", password)
-                )).first();
-
-        if (doc == null) {
-            System.out.println("Es null no ha encontrado");
+        Profile profile;
+
+        try {
+            // Busqueda puntual por el indice unico que corresponda; la contrasena se comprueba aqui
+            profile = profiles.find(
+                    Filters.eq(credential.contains("@") ? "email" : "username", credential)).first();
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.LOGIN);
+        }
+
+        // Un documento sin contrasena nunca permite entrar
+        if (profile == null || profile.getPassword() == null || !profile.getPassword().equals(password)) {
             return null;
         }
 
-        Profile profile;
+        LoggedProfile.getInstance().setProfile(profile);
+        return profile;
 
-        if (doc.containsKey("gender")) {
-            User u = new User();
-            u.setId(doc.getInteger("_id"));
-            u.setEmail(doc.getString("email"));
-            u.setUsername(doc.getString("username"));
-            u.setPassword(doc.getString("password"));
-            u.setName(doc.getString("name"));
-            u.setLastname(doc.getString("lastname"));
-            u.setTelephone(doc.getString("telephone"));
+    }
+    
+    @Override
+    public ArrayList<User> getUsers() throws OurException {
+        try {
+            return mongo.find(Filters.exists("gender"), User.class).into(new ArrayList<>());
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
 
-            genderStr = doc.getString("gender");
-            u.setGender(Gender.valueOf(genderStr.toUpperCase()));
+    @Override
+    public UserCursor streamUsers(int fetchSize) throws OurException {
+        MongoCursor<User> cursor;
 
-            u.setCard(doc.getString("card"));
+        try {
+            cursor = mongo.find(Filters.exists("gender"), User.class).batchSize(fetchSize).iterator();
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
 
-            profile = u;
+        return new UserCursor() {
+            @Override
+            public boolean hasNext() throws OurException {
+                try {
+                    return cursor.hasNext();
+                } catch (MongoException ex) {
+                    throw new OurException(ErrorMessages.GET_USERS);
+                }
+            }
 
-        } else {
+            @Override
+            public User next() throws OurException {
+                try {
+                    return cursor.next();
+                } catch (MongoException ex) {
+                    throw new OurException(ErrorMessages.GET_USERS);
+                }
+            }
 
-            Admin a = new Admin();
-            a.setId(doc.getInteger("_id"));
-            a.setEmail(doc.getString("email"));
-            a.setUsername(doc.getString("username"));
-            a.setPassword(doc.getString("password"));
-            a.setName(doc.getString("name"));
-            a.setLastname(doc.getString("lastname"));
-            a.setTelephone(doc.getString("telephone"));
-            a.setCurrent_account(doc.getString("currentAccount"));
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        };
+    }
 
-            profile = a;
+    @Override
+    public UserPage getUsersPage(int afterId, int pageSize) throws OurException {
+        ArrayList<User> users;
+
+        try {
+            users = mongo.find(Filters.and(Filters.gt("_id", afterId), Filters.exists("gender")), User.class)
+                    .sort(Sorts.ascending("_id"))
+                    .limit(pageSize + 1)
+                    .into(new ArrayList<>());
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
         }
 
-        LoggedProfile.getInstance().setProfile(profile);
-        return profile;
+        return UserPage.fromFetched(users, afterId, pageSize);
+    }
 
+    @Override
+    public ArrayList<UserSummary> getUserSummaries() throws OurException {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        try {
+            for (Document doc : mongo.find(Filters.exists("gender")).projection(Projections.include("username"))) {
+                summaries.add(new UserSummary(doc.getInteger("_id"), doc.getString("username")));
+            }
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+        return summaries;
     }
-    
+
     @Override
-    public ArrayList<User> getUsers() throws OurException {
-        ArrayList<User> users = new ArrayList<>();
-        String genderStr;
-        Gender gender = null;
+    public ArrayList<UserSummary> getUserSummariesPage(int fromId, int offset, int limit) throws OurException {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+
+        try {
+            int afterId = seekUserId(fromId, offset);
+            for (Document doc : mongo.find(Filters.and(Filters.gt("_id", afterId), Filters.exists("gender")))
+                    .projection(Projections.include("username"))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(limit)) {
+                summaries.add(new UserSummary(doc.getInteger("_id"), doc.getString("username")));
+            }
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+        return summaries;
+    }
+
+    @Override
+    public ArrayList<UserSummary> searchUsers(String prefix, int limit) throws OurException {
+        ArrayList<UserSummary> summaries = new ArrayList<>();
+        // Una regex siempre distingue mayusculas, asi que el prefijo se busca como un rango con la
+        // collation de los indices de busqueda; U+FFFF es el caracter mayor de la collation
+        String end = prefix + "\uffff";
+
+        try {
+            for (Document doc : mongo.find(Filters.and(Filters.exists("gender"), Filters.or(
+                    Filters.and(Filters.gte("username", prefix), Filters.lt("username", end)),
+                    Filters.and(Filters.gte("email", prefix), Filters.lt("email", end)),
+                    Filters.and(Filters.gte("lastname", prefix), Filters.lt("lastname", end)))))
+                    .collation(MongoIndexManager.SEARCH_COLLATION)
+                    .projection(Projections.include("username"))
+                    // Se ordena en el servidor antes del limite para devolver los primeros por username
+                    .sort(Sorts.ascending("username"))
+                    .limit(limit)) {
+                summaries.add(new UserSummary(doc.getInteger("_id"), doc.getString("username")));
+            }
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+
+        return summaries;
+    }
+
+    @Override
+    public int countUsers() throws OurException {
+        try {
+            // Se cuenta sobre el indice parcial de usuarios, sin leer los documentos
+            return (int) mongo.countDocuments(Filters.exists("gender"));
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    private int seekUserId(int fromId, int offset) {
+        if (offset == 0) {
+            return fromId;
+        }
+
+        // Solo se cuentan los _id desde el cursor, proyectando nada mas que el _id
+        Document found = mongo.find(Filters.and(offset > 0 ? Filters.gt("_id", fromId) : Filters.lte("_id", fromId), Filters.exists("gender")))
+                .sort(offset > 0 ? Sorts.ascending("_id") : Sorts.descending("_id"))
+                .projection(Projections.include("_id"))
+                .skip(offset > 0 ? offset - 1 : -offset)
+                .first();
+        if (found == null) {
+            return offset > 0 ? Integer.MAX_VALUE : 0;
+        }
+        return found.getInteger("_id");
+    }
+
+    @Override
+    public User getUser(int id) throws OurException {
+        try {
+            return mongo.find(Filters.and(Filters.eq("_id", id), Filters.exists("gender")), User.class).first();
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    @Override
+    public long getChangeWatermark() throws OurException {
+        try {
+            // Los timestamps de "modified" no siguen el orden de confirmacion: una escritura concurrente puede
+            // confirmarse despues con un timestamp menor. La marca no pasa de la hora del servidor menos el
+            // margen, asi esas escrituras siguen por encima de ella y se leen en la siguiente consulta
+            Date now = MongoConnectionManager.getDatabase().runCommand(new Document("hello", 1)).getDate("localTime");
+            long settled = new BsonTimestamp((int) (now.getTime() / 1000) - CHANGE_SAFETY_SECONDS, 0).getValue();
+
+            return Math.min(Math.max(lastModified(mongo), lastModified(tombstones)), settled);
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
+        }
+    }
+
+    @Override
+    public UserChanges getUsersChangedSince(long watermark) throws OurException {
+        try {
+            // Se fija primero el limite superior para no perder escrituras que ocurran durante la lectura
+            long upTo = getChangeWatermark();
+            Bson range = Filters.and(
+                    Filters.gt("modified", new BsonTimestamp(watermark)),
+                    Filters.lte("modified", new BsonTimestamp(upTo)));
 
-        for (Document doc : mongo.find(Filters.exists("gender"))) {
-            User u = new User();
-            u.setId(doc.getInteger("_id"));
-            u.setEmail(doc.getString("email"));
-            System.out.println(doc.getString("email"));
-            u.setUsername(doc.getString("username"));
-            System.out.println(doc.getString("username"));
-            u.setPassword(doc.getString("password"));
-            u.setName(doc.getString("name"));
-            u.setLastname(doc.getString("lastname"));
-            u.setTelephone(doc.getString("telephone"));
+            ArrayList<User> users = mongo.find(Filters.and(range, Filters.exists("gender")), User.class).into(new ArrayList<>());
 
-            genderStr = doc.getString("gender");
-            if (genderStr.equalsIgnoreCase("MALE")) {
-                gender = gender.MALE;
-            } else if (genderStr.equalsIgnoreCase("FEMALE")) {
-                gender = gender.FEMALE;
-            } else {
-                gender = gender.OTHER;
+            ArrayList<Integer> deletedIds = new ArrayList<>();
+            for (Document doc : tombstones.find(range).projection(Projections.include("_id"))) {
+                deletedIds.add(doc.getInteger("_id"));
             }
-            u.setGender(gender);
-            u.setCard(doc.getString("card"));
 
-            users.add(u);
+            return new UserChanges(users, deletedIds, Math.max(watermark, upTo));
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.GET_USERS);
         }
-        return users;
+    }
+
+    // Requiere un replica set; en un servidor standalone el watcher avisa con onUnavailable
+    public ProfileChangeWatcher watchUsers(long watermark, ProfileChangeWatcher.Listener listener) {
+        ProfileChangeWatcher watcher = new ProfileChangeWatcher(mongo, watermark, listener);
+        watcher.start();
+        return watcher;
+    }
+
+    private long lastModified(MongoCollection<Document> collection) {
+        Document last = collection.find(Filters.exists("modified"))
+                .sort(Sorts.descending("modified"))
+                .projection(Projections.include("modified"))
+                .first();
+        return last != null ? last.get("modified", BsonTimestamp.class).getValue() : 0;
+    }
+
+    @Override
+    public BatchResult updateUsers(List<User> users) throws OurException {
+        BatchResult result = new BatchResult();
+
+        if (users.isEmpty()) {
+            return result;
+        }
+
+        try {
+            List<Integer> ids = new ArrayList<>();
+            for (User u : users) {
+                ids.add(u.getId());
+            }
+            Map<Integer, Integer> versions = currentVersions(Filters.and(Filters.in("_id", ids), Filters.exists("gender")));
+
+            // Los usuarios modificados por otra sesion desde que se cargaron no se escriben, y un ID repetido
+            // solo se escribe una vez porque la segunda escritura ya no encontraria su version
+            List<User> written = new ArrayList<>();
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            for (User u : users) {
+                if (versions.containsKey(u.getId()) && versions.get(u.getId()) == u.getVersion()) {
+                    versions.remove(u.getId());
+                    written.add(u);
+                    writes.add(new UpdateOneModel<>(
+                            Filters.and(Filters.eq("_id", u.getId()), versionIs(u.getVersion())),
+                            updateFields(u)));
+                }
+            }
+
+            Set<User> updated = new HashSet<>();
+            if (!writes.isEmpty()) {
+                Set<Integer> failed = new HashSet<>();
+                int matched;
+                try {
+                    matched = mongo.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getMatchedCount();
+                } catch (MongoBulkWriteException ex) {
+                    matched = ex.getWriteResult().getMatchedCount();
+                    for (BulkWriteError error : ex.getWriteErrors()) {
+                        failed.add(error.getIndex());
+                    }
+                }
+
+                if (matched == writes.size() - failed.size()) {
+                    for (int i = 0; i < written.size(); i++) {
+                        if (!failed.contains(i)) {
+                            updated.add(written.get(i));
+                        }
+                    }
+                } else {
+                    // Otra sesion cambio o borro alguno entre la lectura y la escritura; se comprueba cuales
+                    // quedaron con la version siguiente a la que se escribio
+                    List<Integer> writtenIds = new ArrayList<>();
+                    for (User u : written) {
+                        writtenIds.add(u.getId());
+                    }
+                    Map<Integer, Integer> after = currentVersions(Filters.in("_id", writtenIds));
+                    for (int i = 0; i < written.size(); i++) {
+                        User u = written.get(i);
+                        if (!failed.contains(i) && after.containsKey(u.getId()) && after.get(u.getId()) == u.getVersion() + 1) {
+                            updated.add(u);
+                        }
+                    }
+                }
+            }
+
+            for (User u : users) {
+                if (updated.contains(u)) {
+                    u.setVersion(u.getVersion() + 1);
+                    u.markClean();
+                }
+                // El resultado de un ID repetido es el de la copia que se escribio
+                if (!result.isSuccess(u.getId())) {
+                    result.add(u.getId(), updated.contains(u));
+                }
+            }
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        }
+        return result;
+    }
+
+    @Override
+    public BatchResult deleteUsers(int[] ids) throws OurException {
+        BatchResult result = new BatchResult();
+
+        if (ids.length == 0) {
+            return result;
+        }
+
+        try {
+            List<Integer> idList = new ArrayList<>();
+            for (int id : ids) {
+                idList.add(id);
+            }
+            Set<Integer> existing = existingIds(Filters.and(Filters.in("_id", idList), Filters.exists("gender")));
+
+            if (!existing.isEmpty()) {
+                // Las marcas se escriben antes del borrado: si fallan no se ha borrado nada y el error es exacto
+                List<WriteModel<Document>> marks = new ArrayList<>();
+                for (int id : existing) {
+                    marks.add(new UpdateOneModel<>(Filters.eq("_id", id), Updates.currentTimestamp("modified"), new UpdateOptions().upsert(true)));
+                }
+                tombstones.bulkWrite(marks, new BulkWriteOptions().ordered(false));
+
+                mongo.deleteMany(Filters.and(Filters.in("_id", existing), Filters.exists("gender")));
+            }
+
+            for (int id : ids) {
+                result.add(id, existing.contains(id));
+            }
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.DELETE_USER);
+        }
+        return result;
+    }
+
+    private Set<Integer> existingIds(Bson filter) {
+        Set<Integer> ids = new HashSet<>();
+
+        for (Document doc : mongo.find(filter).projection(Projections.include("_id"))) {
+            ids.add(doc.getInteger("_id"));
+        }
+        return ids;
+    }
+
+    private Map<Integer, Integer> currentVersions(Bson filter) {
+        Map<Integer, Integer> versions = new HashMap<>();
+
+        for (Document doc : mongo.find(filter).projection(Projections.include("_id", "version"))) {
+            Number version = doc.get("version", Number.class);
+            versions.put(doc.getInteger("_id"), version != null ? version.intValue() : 0);
+        }
+        return versions;
+    }
+
+    private Bson versionIs(int version) {
+        // Los documentos importados sin campo version se consideran version 0
+        return version == 0
+                ? Filters.or(Filters.eq("version", 0), Filters.exists("version", false))
+                : Filters.eq("version", version);
+    }
+
+    private Bson updateFields(User user) {
+        return Updates.combine(
+                Updates.set("password", user.getPassword()),
+                Updates.set("name", user.getName()),
+                Updates.set("lastname", user.getLastname()),
+                Updates.set("telephone", user.getTelephone()),
+                Updates.set("gender", user.getGender().name()),
+                Updates.set("card", user.getCard()),
+                Updates.inc("version", 1),
+                Updates.currentTimestamp("modified"));
+    }
+
+    private int reserveIds(int blockSize) {
+        Document counter = counters.findOneAndUpdate(
+                Filters.eq("_id", "profiles"),
+                Updates.inc("seq", blockSize),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return counter.getInteger("seq");
+    }
+
+    private void syncCounter() {
+        // El contador nunca queda por debajo del mayor _id existente (p. ej. tras importar el JSON)
+        Document last = mongo.find().sort(Sorts.descending("_id")).projection(Projections.include("_id")).first();
+        counters.updateOne(
+                Filters.eq("_id", "profiles"),
+                Updates.max("seq", last != null ? last.getInteger("_id") : 0),
+                new UpdateOptions().upsert(true));
     }
 
     @Override
     public boolean updateUser(User user) throws OurException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        // Solo se envian al $set los campos modificados desde que se cargo el usuario
+        List<Bson> changes = new ArrayList<>();
+        for (Map.Entry<String, String> change : user.getChangedValues().entrySet()) {
+            if (UPDATABLE_FIELDS.contains(change.getKey())) {
+                changes.add(Updates.set(change.getKey(), change.getValue()));
+            }
+        }
+
+        if (changes.isEmpty()) {
+            return true;
+        }
+
+        // Solo se actualiza si nadie ha modificado el usuario desde que se cargo
+        changes.add(Updates.inc("version", 1));
+        changes.add(Updates.currentTimestamp("modified"));
+
+        try {
+            if (mongo.updateOne(
+                    Filters.and(Filters.eq("_id", user.getId()), Filters.exists("gender"), versionIs(user.getVersion())),
+                    Updates.combine(changes)).getMatchedCount() == 0) {
+                if (mongo.countDocuments(Filters.and(Filters.eq("_id", user.getId()), Filters.exists("gender"))) > 0) {
+                    throw new ConcurrentUpdateException(user.getId());
+                }
+                return false;
+            }
+
+            user.setVersion(user.getVersion() + 1);
+            user.markClean();
+            return true;
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.UPDATE_USER);
+        }
     }
 
     @Override
     public boolean deleteUser(int id) throws OurException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        try {
+            // Como en deleteUsers, la lapida va antes del borrado; si no habia usuario que borrar solo
+            // repite un borrado que los clientes ya aplicaron o un ID que nunca listaron
+            tombstones.updateOne(Filters.eq("_id", id), Updates.currentTimestamp("modified"), new UpdateOptions().upsert(true));
+
+            return mongo.deleteOne(Filters.and(Filters.eq("_id", id), Filters.exists("gender"))).getDeletedCount() > 0;
+        } catch (MongoException ex) {
+            throw new OurException(ErrorMessages.DELETE_USER);
+        }
     }
 
     @Override
     public User register(User user) throws OurException {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        // Los indices unicos de username y email sustituyen a la consulta previa de credenciales
+        for (int attempt = 0; attempt < 3; attempt++) {
+            try {
+                user.setId(ids.nextId());
+            } catch (MongoException ex) {
+                throw new OurException(ErrorMessages.REGISTER_USER);
+            }
+
+            try {
+                profiles.insertOne(user);
+                user.markClean();
+                return user;
+            } catch (MongoWriteException ex) {
+                if (ex.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                    throw new OurException(ErrorMessages.REGISTER_USER);
+                }
+
+                String message = ex.getError().getMessage();
+                if (message.contains(MongoIndexManager.EMAIL_INDEX)) {
+                    user.setId(-1);
+                    throw new OurException(ErrorMessages.EMAIL_EXISTS);
+                } else if (message.contains(MongoIndexManager.USERNAME_INDEX)) {
+                    user.setId(-1);
+                    throw new OurException(ErrorMessages.USERNAME_EXISTS);
+                }
+
+                // El _id ya estaba ocupado: se adelanta el contador y se reintenta con un bloque nuevo
+                syncCounter();
+                ids.reset();
+            } catch (MongoException ex) {
+                user.setId(-1);
+                throw new OurException(ErrorMessages.REGISTER_USER);
+            }
+        }
+
+        user.setId(-1);
+        throw new OurException(ErrorMessages.REGISTER_USER);
     }
 
+    @Override
+    public Profile registerAndLogin(User user) throws OurException {
+        // El perfil insertado ya esta completo, no hace falta volver a leerlo
+        User registered = register(user);
+
+        LoggedProfile.getInstance().setProfile(registered);
+        return registered;
+    }
 
 }
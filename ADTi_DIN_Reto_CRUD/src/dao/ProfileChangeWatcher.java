@@ -0,0 +1,282 @@
+package dao;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import model.User;
+import model.UserChanges;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+/**
+ * Watches the profiles collection through a MongoDB change stream and reports every insert, update and delete of a user as soon as it happens. Change streams require a replica set, which can be a local single-node one; on a standalone server the watcher reports itself as unavailable so the caller can fall back to polling.
+ *
+ * The first stream is opened at the watermark of the listing the caller already read, so the changes made between that read and the start of the watcher are delivered too. The resume token of the last event is kept, so after a lost connection the stream is reopened exactly where it stopped and no event is missed or repeated. If the server no longer has the history needed to resume, the caller is asked to reload everything.
+ */
+public class ProfileChangeWatcher
+{
+
+    /**
+     * Receives the events of the watcher. All methods are invoked from the watcher thread.
+     */
+    public interface Listener
+    {
+
+        /**
+         * Called for every user inserted, updated or deleted.
+         *
+         * @param changes the changed user or the deleted ID, with the cluster time of the event as watermark
+         */
+        void onChanges(UserChanges changes);
+
+        /**
+         * Called when the stream could not be resumed and events may have been lost, so the full listing must be loaded again.
+         */
+        void onResync();
+
+        /**
+         * Called when change streams are not supported by the server. The watcher stops after this call.
+         */
+        void onUnavailable();
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ProfileChangeWatcher.class.getName());
+
+    /**
+     * Server error codes for a server that is not part of a replica set, and for a resume token whose history is no longer available.
+     */
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final int HISTORY_LOST = 286;
+
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    /**
+     * Only deletions and documents of users are delivered, so administrators are filtered out by the server.
+     */
+    private static final List<Bson> PIPELINE = Collections.singletonList(Aggregates.match(
+            Filters.or(Filters.eq("operationType", "delete"), Filters.exists("fullDocument.gender"))));
+
+    private final MongoCollection<Document> collection;
+    private final Listener listener;
+    private volatile BsonDocument resumeToken;
+    private volatile long startAt;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Constructs a new watcher over a profiles collection. The watcher does not start until start is called.
+     *
+     * @param collection the profiles collection, configured with the profile codecs
+     * @param watermark the cluster time from which the first stream reports events, or 0 to report only the events after it opens
+     * @param listener the listener receiving the events
+     */
+    public ProfileChangeWatcher(MongoCollection<Document> collection, long watermark, Listener listener)
+    {
+        this.collection = collection;
+        this.startAt = watermark;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts watching in a background daemon thread. Calling this method on a running watcher has no effect.
+     */
+    public synchronized void start()
+    {
+        if (running)
+        {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::watch, "profile-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops watching. The stream is closed within the maximum wait time of one poll.
+     */
+    public synchronized void stop()
+    {
+        running = false;
+
+        if (thread != null)
+        {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Checks if the watcher is running.
+     *
+     * @return true if the watcher has been started and not stopped or found unavailable, false otherwise
+     */
+    public boolean isRunning()
+    {
+        return running;
+    }
+
+    /**
+     * Returns the resume token of the last event processed.
+     *
+     * @return the resume token, or null if no event has been received yet
+     */
+    public BsonDocument getResumeToken()
+    {
+        return resumeToken;
+    }
+
+    /**
+     * Main loop of the watcher thread. The stream is opened, resuming after the last token if there is one or else at the starting watermark, and reopened with an increasing delay whenever the connection fails.
+     */
+    private void watch()
+    {
+        long backoff = 1000;
+
+        while (running)
+        {
+            ChangeStreamIterable<User> stream = collection.watch(PIPELINE, User.class)
+                    .fullDocument(FullDocument.UPDATE_LOOKUP)
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+
+            if (resumeToken != null)
+            {
+                stream = stream.resumeAfter(resumeToken);
+            }
+            else if (startAt > 0)
+            {
+                stream = stream.startAtOperationTime(new BsonTimestamp(startAt));
+            }
+
+            try (MongoChangeStreamCursor<ChangeStreamDocument<User>> cursor = stream.cursor())
+            {
+                backoff = 1000;
+                // Once open, the stream is resumed from its token, and after a resync it starts from the reload
+                startAt = 0;
+
+                while (running)
+                {
+                    ChangeStreamDocument<User> event = cursor.tryNext();
+
+                    if (event != null && !dispatch(event))
+                    {
+                        break;
+                    }
+
+                    if (cursor.getResumeToken() != null)
+                    {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            }
+            catch (MongoServerException ex)
+            {
+                if (ex.getCode() == NOT_A_REPLICA_SET)
+                {
+                    running = false;
+                    LOGGER.info("Change streams are not available: " + ex.getMessage());
+                    listener.onUnavailable();
+                    return;
+                }
+
+                if (ex.getCode() == HISTORY_LOST)
+                {
+                    resumeToken = null;
+                    startAt = 0;
+                    listener.onResync();
+                    continue;
+                }
+
+                LOGGER.log(Level.WARNING, "Change stream failed, retrying", ex);
+                backoff = pause(backoff);
+            }
+            catch (MongoException | IllegalStateException ex)
+            {
+                if (running)
+                {
+                    LOGGER.log(Level.WARNING, "Change stream connection lost, retrying", ex);
+                    backoff = pause(backoff);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports a single event to the listener.
+     *
+     * @param event the change stream event
+     * @return true to keep reading the stream, false if it was invalidated and must be reopened from scratch
+     */
+    private boolean dispatch(ChangeStreamDocument<User> event)
+    {
+        ArrayList<User> users = new ArrayList<>();
+        ArrayList<Integer> deletedIds = new ArrayList<>();
+        long watermark = event.getClusterTime() != null ? event.getClusterTime().getValue() : 0;
+
+        switch (event.getOperationType())
+        {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                // The document may have been deleted before the lookup, its delete event will follow
+                if (event.getFullDocument() != null)
+                {
+                    users.add(event.getFullDocument());
+                }
+                break;
+            case DELETE:
+                deletedIds.add(event.getDocumentKey().getInt32("_id").getValue());
+                break;
+            case DROP:
+            case RENAME:
+            case DROP_DATABASE:
+            case INVALIDATE:
+                resumeToken = null;
+                listener.onResync();
+                return false;
+            default:
+                return true;
+        }
+
+        if (!users.isEmpty() || !deletedIds.isEmpty())
+        {
+            listener.onChanges(new UserChanges(users, deletedIds, watermark));
+        }
+        return true;
+    }
+
+    /**
+     * Waits before reopening the stream.
+     *
+     * @param backoff the time to wait in milliseconds
+     * @return the time to wait before the next attempt, doubled up to a maximum
+     */
+    private long pause(long backoff)
+    {
+        try
+        {
+            Thread.sleep(backoff);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+    }
+}
@@ -0,0 +1,224 @@
+package dao;
+
+import model.Admin;
+import model.Gender;
+import model.Profile;
+import model.User;
+import org.bson.BsonReader;
+import org.bson.BsonTimestamp;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+
+/**
+ * BSON codec that maps documents of the profiles collection directly to User and Admin objects. Documents are decoded field by field straight from the BSON reader, without building an intermediate Document, and the presence of the gender field decides whether a User or an Admin is created.
+ *
+ * @param <T> the profile class handled by the codec, which can be Profile, User or Admin
+ */
+public class ProfileCodec<T extends Profile> implements Codec<T>
+{
+
+    private final Class<T> clazz;
+
+    /**
+     * Constructs a new codec for the given profile class.
+     *
+     * @param clazz the profile class to encode and decode
+     */
+    public ProfileCodec(Class<T> clazz)
+    {
+        this.clazz = clazz;
+    }
+
+    /**
+     * Decodes a profile document into a User, if it has a gender field, or into an Admin otherwise.
+     *
+     * @param reader the BSON reader positioned at the start of the document
+     * @param decoderContext the decoder context
+     * @return the decoded profile
+     * @throws CodecConfigurationException if the document does not match the profile class of the codec
+     */
+    @Override
+    public T decode(BsonReader reader, DecoderContext decoderContext)
+    {
+        int id = -1;
+        String email = null;
+        String username = null;
+        String password = null;
+        String name = null;
+        String lastname = null;
+        String telephone = null;
+        Gender gender = null;
+        String card = null;
+        String currentAccount = null;
+        int version = 0;
+        boolean isUser = false;
+
+        reader.readStartDocument();
+
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+        {
+            String field = reader.readName();
+
+            if (field.equals("gender"))
+            {
+                isUser = true;
+            }
+
+            if (reader.getCurrentBsonType() == BsonType.NULL)
+            {
+                reader.readNull();
+                continue;
+            }
+
+            switch (field)
+            {
+                case "_id":
+                    id = reader.readInt32();
+                    break;
+                case "email":
+                    email = reader.readString();
+                    break;
+                case "username":
+                    username = reader.readString();
+                    break;
+                case "password":
+                    password = reader.readString();
+                    break;
+                case "name":
+                    name = reader.readString();
+                    break;
+                case "lastname":
+                    lastname = reader.readString();
+                    break;
+                case "telephone":
+                    telephone = reader.readString();
+                    break;
+                case "gender":
+                    gender = toGender(reader.readString());
+                    break;
+                case "card":
+                    card = reader.readString();
+                    break;
+                case "currentAccount":
+                    currentAccount = reader.readString();
+                    break;
+                case "version":
+                    version = reader.getCurrentBsonType() == BsonType.INT64 ? (int) reader.readInt64() : reader.readInt32();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.readEndDocument();
+
+        Profile profile = isUser
+                ? new User(id, email, username, password, name, lastname, telephone, gender != null ? gender : Gender.OTHER, card)
+                : new Admin(id, email, username, password, name, lastname, telephone, currentAccount);
+
+        if (!clazz.isInstance(profile))
+        {
+            throw new CodecConfigurationException("Profile " + id + " cannot be decoded as " + clazz.getSimpleName());
+        }
+
+        profile.setVersion(version);
+        profile.markClean();
+        return clazz.cast(profile);
+    }
+
+    /**
+     * Encodes a User or an Admin into a profile document. The ID is only written if the profile has one assigned.
+     *
+     * @param writer the BSON writer
+     * @param value the profile to encode
+     * @param encoderContext the encoder context
+     */
+    @Override
+    public void encode(BsonWriter writer, T value, EncoderContext encoderContext)
+    {
+        writer.writeStartDocument();
+
+        if (value.getId() != -1)
+        {
+            writer.writeInt32("_id", value.getId());
+        }
+
+        // An empty timestamp among the first fields is replaced by the server with the time of the insert
+        writer.writeTimestamp("modified", new BsonTimestamp());
+
+        writeString(writer, "email", value.getEmail());
+        writeString(writer, "username", value.getUsername());
+        writeString(writer, "password", value.getPassword());
+        writeString(writer, "name", value.getName());
+        writeString(writer, "lastname", value.getLastname());
+        writeString(writer, "telephone", value.getTelephone());
+
+        if (value instanceof User)
+        {
+            User user = (User) value;
+            writeString(writer, "gender", user.getGender() != null ? user.getGender().name() : null);
+            writeString(writer, "card", user.getCard());
+        }
+        else if (value instanceof Admin)
+        {
+            writeString(writer, "currentAccount", ((Admin) value).getCurrent_account());
+        }
+
+        writer.writeInt32("version", value.getVersion());
+
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Returns the profile class handled by this codec.
+     *
+     * @return the profile class
+     */
+    @Override
+    public Class<T> getEncoderClass()
+    {
+        return clazz;
+    }
+
+    /**
+     * Maps a stored gender value to the Gender enum without creating intermediate strings. Unknown values are mapped to OTHER.
+     *
+     * @param value the stored gender value
+     * @return the corresponding Gender
+     */
+    static Gender toGender(String value)
+    {
+        if (value.equalsIgnoreCase("MALE"))
+        {
+            return Gender.MALE;
+        }
+        else if (value.equalsIgnoreCase("FEMALE"))
+        {
+            return Gender.FEMALE;
+        }
+        return Gender.OTHER;
+    }
+
+    /**
+     * Writes a string field, or a null value if the string is null.
+     *
+     * @param writer the BSON writer
+     * @param field the name of the field
+     * @param value the value to write
+     */
+    private void writeString(BsonWriter writer, String field, String value)
+    {
+        if (value != null)
+        {
+            writer.writeString(field, value);
+        }
+        else
+        {
+            writer.writeNull(field);
+        }
+    }
+}
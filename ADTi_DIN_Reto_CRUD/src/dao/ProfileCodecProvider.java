@@ -0,0 +1,32 @@
+package dao;
+
+import model.Profile;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecProvider;
+import org.bson.codecs.configuration.CodecRegistry;
+
+/**
+ * Codec provider that supplies a ProfileCodec for Profile and any of its subclasses. It is registered on the profiles collection so that queries can return User and Admin objects directly.
+ */
+public class ProfileCodecProvider implements CodecProvider
+{
+
+    /**
+     * Returns a ProfileCodec if the requested class is a profile class.
+     *
+     * @param <T> the requested class type
+     * @param clazz the requested class
+     * @param registry the codec registry
+     * @return a ProfileCodec for profile classes, or null for any other class
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(Class<T> clazz, CodecRegistry registry)
+    {
+        if (Profile.class.isAssignableFrom(clazz))
+        {
+            return (Codec<T>) new ProfileCodec<>(clazz.asSubclass(Profile.class));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package dao;
+
+import exception.OurException;
+import model.User;
+
+/**
+ * Pull-based cursor over the users of the data store. Users are read from the database in batches as the cursor advances, so memory usage stays constant regardless of the number of users and the caller can process the first users as soon as the first batch arrives.
+ *
+ * The cursor holds database resources until it is closed, so it is intended to be used inside a try-with-resources block.
+ */
+public interface UserCursor extends AutoCloseable
+{
+
+    /**
+     * Checks if there are more users to read, fetching the next batch from the database when the current one is exhausted.
+     *
+     * @return true if another user can be read, false otherwise
+     * @throws OurException if the next batch cannot be read
+     */
+    public boolean hasNext() throws OurException;
+
+    /**
+     * Returns the next user of the cursor.
+     *
+     * @return the next User
+     * @throws OurException if the user cannot be read
+     * @throws java.util.NoSuchElementException if there are no more users
+     */
+    public User next() throws OurException;
+
+    /**
+     * Releases the database resources held by the cursor.
+     *
+     * @throws OurException if the resources cannot be released
+     */
+    @Override
+    public void close() throws OurException;
+}
@@ -0,0 +1,33 @@
+package exception;
+
+/**
+ * Exception thrown when a profile cannot be updated because another session modified it after it was loaded. The update is rejected without overwriting the other changes, so the interface can reload the profile and let the administrator apply the changes again.
+ */
+public class ConcurrentUpdateException extends OurException
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final int profileId;
+
+    /**
+     * Constructs a new ConcurrentUpdateException for the given profile.
+     *
+     * @param profileId the unique identifier of the profile that was modified concurrently
+     */
+    public ConcurrentUpdateException(int profileId)
+    {
+        super(ErrorMessages.UPDATE_CONFLICT);
+        this.profileId = profileId;
+    }
+
+    /**
+     * Returns the identifier of the profile that was modified concurrently.
+     *
+     * @return the profile ID
+     */
+    public int getProfileId()
+    {
+        return profileId;
+    }
+}
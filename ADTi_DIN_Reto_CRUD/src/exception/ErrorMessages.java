@@ -20,11 +20,26 @@ public class ErrorMessages
      */
     public static final String GET_USERS = "Failed to retrieve users.";
 
+    /**
+     * Error message displayed when registration fails because the email is already in use by another account.
+     */
+    public static final String EMAIL_EXISTS = "Email already exists";
+
+    /**
+     * Error message displayed when registration fails because the username is already in use by another account.
+     */
+    public static final String USERNAME_EXISTS = "Username already exists";
+
     /**
      * Error message displayed when user profile update fails. This typically occurs due to database constraints, validation errors, or system errors during the update process.
      */
     public static final String UPDATE_USER = "User could not be updated.";
 
+    /**
+     * Error message displayed when a user cannot be updated because another administrator changed it after it was loaded.
+     */
+    public static final String UPDATE_CONFLICT = "User was modified by another administrator. The latest data has been loaded.";
+
     /**
      * Error message displayed when user deletion fails. This typically occurs due to database constraints, foreign key violations, or system errors during the deletion process.
      */
@@ -59,4 +74,14 @@ public class ErrorMessages
      * Error message displayed when database initialization fails. This typically occurs during application startup when the system cannot establish initial connection to the database or initialize the data source.
      */
     public static final String DATABASE = "Error initializing database connection.";
+
+    /**
+     * Error message displayed when a background operation cannot be accepted. This typically occurs when too many database operations are already waiting to be executed.
+     */
+    public static final String BUSY = "The system is busy. Please try again later.";
+
+    /**
+     * Error message displayed when a database operation is rejected by admission control. This typically occurs when too many operations of the same kind are already running and waiting, so the operation is refused at once instead of waiting for a connection.
+     */
+    public static final String OVERLOADED = "Too many requests are in progress. Please try again in a moment.";
 }
@@ -0,0 +1,46 @@
+package exception;
+
+/**
+ * Exception thrown when a database operation is not admitted because its kind of operation has reached its concurrency limit and its wait queue is full, or the operation waited in the queue longer than allowed. Nothing has been executed, so the operation can safely be tried again later.
+ */
+public class OverloadedException extends OurException
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final String operationClass;
+    private final boolean queueFull;
+
+    /**
+     * Constructs a new OverloadedException for the given kind of operation.
+     *
+     * @param operationClass the name of the kind of operation that was rejected
+     * @param queueFull true if the operation was rejected because the wait queue was full, false if it waited past its deadline
+     */
+    public OverloadedException(String operationClass, boolean queueFull)
+    {
+        super(ErrorMessages.OVERLOADED);
+        this.operationClass = operationClass;
+        this.queueFull = queueFull;
+    }
+
+    /**
+     * Returns the name of the kind of operation that was rejected.
+     *
+     * @return the operation class
+     */
+    public String getOperationClass()
+    {
+        return operationClass;
+    }
+
+    /**
+     * Returns whether the operation was rejected on arrival because the wait queue was full, rather than after waiting past its deadline.
+     *
+     * @return true if the wait queue was full
+     */
+    public boolean isQueueFull()
+    {
+        return queueFull;
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.LinkedHashMap;
+
 /**
  * Represents an administrator user in the system, extending the base Profile class. This class contains administrator-specific attributes and functionality, including access to administrative accounts and privileged operations.
  *
@@ -69,6 +71,31 @@ public class Admin extends Profile
         this.a_current_account = a_current_account;
     }
 
+    /**
+     * Returns the current value of every tracked field, adding the administrative account to the fields of the base profile.
+     *
+     * @return a map with the current value of each tracked field
+     */
+    @Override
+    protected LinkedHashMap<String, String> trackedValues()
+    {
+        LinkedHashMap<String, String> values = super.trackedValues();
+
+        values.put("currentAccount", a_current_account);
+        return values;
+    }
+
+    /**
+     * Returns an independent copy of this administrator, including its administrative account, version and change snapshot.
+     *
+     * @return a copy of this administrator
+     */
+    @Override
+    public Admin copy()
+    {
+        return copyStateTo(new Admin(p_id, p_email, p_username, p_password, p_name, p_lastname, p_telephone, a_current_account));
+    }
+
     /**
      * Returns a string representation of the administrator profile. This method provides a formatted string containing all profile information along with a masked version of the administrative account for security purposes.
      *
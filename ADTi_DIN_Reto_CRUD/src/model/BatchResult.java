@@ -0,0 +1,96 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the outcome of a batch operation over several users, recording for each user ID whether the operation succeeded. This allows the interface to report partial failures instead of treating the whole batch as a single success or error.
+ *
+ * Results are kept in the same order in which the IDs were added.
+ */
+public class BatchResult
+{
+
+    private final LinkedHashMap<Integer, Boolean> results = new LinkedHashMap<>();
+
+    /**
+     * Records the outcome of the operation for a user.
+     *
+     * @param id the unique identifier of the user
+     * @param success true if the operation succeeded for that user, false otherwise
+     */
+    public void add(int id, boolean success)
+    {
+        results.put(id, success);
+    }
+
+    /**
+     * Checks if the operation succeeded for a user.
+     *
+     * @param id the unique identifier of the user
+     * @return true if the operation succeeded, false if it failed or the user was not part of the batch
+     */
+    public boolean isSuccess(int id)
+    {
+        return Boolean.TRUE.equals(results.get(id));
+    }
+
+    /**
+     * Returns the number of users for which the operation succeeded.
+     *
+     * @return the number of successful items
+     */
+    public int getSuccessCount()
+    {
+        int count = 0;
+
+        for (boolean success : results.values())
+        {
+            if (success)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the IDs of the users for which the operation failed.
+     *
+     * @return an ArrayList with the failed user IDs
+     */
+    public ArrayList<Integer> getFailedIds()
+    {
+        ArrayList<Integer> failed = new ArrayList<>();
+
+        for (Map.Entry<Integer, Boolean> entry : results.entrySet())
+        {
+            if (!entry.getValue())
+            {
+                failed.add(entry.getKey());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Returns the number of users included in the batch.
+     *
+     * @return the number of items of the batch
+     */
+    public int size()
+    {
+        return results.size();
+    }
+
+    /**
+     * Checks if the operation succeeded for every user of the batch.
+     *
+     * @return true if no item failed, false otherwise
+     */
+    public boolean isComplete()
+    {
+        return getSuccessCount() == results.size();
+    }
+}
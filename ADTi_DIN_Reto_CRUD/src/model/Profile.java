@@ -1,5 +1,8 @@
 package model;
 
+import java.util.LinkedHashMap;
+import java.util.Objects;
+
 /**
  * Abstract base class representing a user profile in the system. This class defines the common attributes and behavior shared by all types of user profiles, including both regular users and administrators.
  *
@@ -17,6 +20,8 @@ public abstract class Profile
     protected String p_name;
     protected String p_lastname;
     protected String p_telephone;
+    protected int p_version;
+    private LinkedHashMap<String, String> snapshot;
 
     /**
      * Default constructor that initializes all profile attributes to empty values. The ID is set to -1 to indicate an unpersisted profile that hasn't been assigned a database identifier yet.
@@ -95,6 +100,26 @@ public abstract class Profile
         this.p_id = p_id;
     }
 
+    /**
+     * Returns the version of the profile, which is incremented by the data store on every update and used to detect concurrent modifications.
+     *
+     * @return the version the profile had when it was loaded or last saved
+     */
+    public int getVersion()
+    {
+        return p_version;
+    }
+
+    /**
+     * Sets the version of the profile.
+     *
+     * @param p_version the version read from the data store
+     */
+    public void setVersion(int p_version)
+    {
+        this.p_version = p_version;
+    }
+
     /**
      * Returns the email address associated with the profile.
      *
@@ -215,6 +240,58 @@ public abstract class Profile
         this.p_telephone = p_telephone;
     }
 
+    /**
+     * Returns the current value of every field whose changes are tracked, keyed by the field name used in the data store. Subclasses add their own fields to the ones of the base profile.
+     *
+     * @return a map with the current value of each tracked field
+     */
+    protected LinkedHashMap<String, String> trackedValues()
+    {
+        LinkedHashMap<String, String> values = new LinkedHashMap<>();
+
+        values.put("email", p_email);
+        values.put("username", p_username);
+        values.put("password", p_password);
+        values.put("name", p_name);
+        values.put("lastname", p_lastname);
+        values.put("telephone", p_telephone);
+        return values;
+    }
+
+    /**
+     * Takes a snapshot of the current field values, marking the profile as unchanged. Data access implementations call this method when a profile is loaded or saved, so later modifications can be detected by comparing against this snapshot.
+     */
+    public void markClean()
+    {
+        snapshot = trackedValues();
+    }
+
+    /**
+     * Returns the fields whose value differs from the snapshot taken when the profile was loaded or last saved. A profile that was never marked as clean reports all its fields as changed.
+     *
+     * @return a map with the current value of each changed field, keyed by the field name used in the data store
+     */
+    public LinkedHashMap<String, String> getChangedValues()
+    {
+        LinkedHashMap<String, String> values = trackedValues();
+
+        if (snapshot != null)
+        {
+            values.entrySet().removeIf(e -> Objects.equals(e.getValue(), snapshot.get(e.getKey())));
+        }
+        return values;
+    }
+
+    /**
+     * Checks if any field has changed since the profile was loaded or last saved.
+     *
+     * @return true if at least one field has changed, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return !getChangedValues().isEmpty();
+    }
+
     /**
      * Returns a string representation of the profile containing all attributes. This method provides a comprehensive textual representation of the profile including all personal information and credentials.
      *
@@ -227,6 +304,29 @@ public abstract class Profile
                 + ", Telephone: " + p_telephone;
     }
 
+    /**
+     * Returns an independent copy of this profile, including its version and the snapshot used to detect changes, so the copy can be modified without affecting this profile.
+     *
+     * @return a copy of this profile
+     */
+    public abstract Profile copy();
+
+    /**
+     * Copies the version and the change snapshot of this profile to a copy created by a subclass.
+     *
+     * @param <T> the type of the copy
+     * @param copy the new profile holding the same field values as this one
+     * @return the given copy
+     */
+    protected <T extends Profile> T copyStateTo(T copy)
+    {
+        Profile target = copy;
+
+        target.p_version = p_version;
+        target.snapshot = snapshot != null ? new LinkedHashMap<>(snapshot) : null;
+        return copy;
+    }
+
     /**
      * Abstract method for displaying profile information in a customized format. Concrete subclasses must implement this method to provide their own specific representation of profile data.
      *
@@ -1,5 +1,7 @@
 package model;
 
+import java.util.LinkedHashMap;
+
 /**
  * Represents a regular user in the system, extending the base Profile class. This class contains user-specific attributes including gender information and payment card details, providing the complete data model for standard user accounts in the application.
  *
@@ -95,6 +97,32 @@ public class User extends Profile
         this.u_card = u_card;
     }
 
+    /**
+     * Returns the current value of every tracked field, adding the gender and the payment card to the fields of the base profile.
+     *
+     * @return a map with the current value of each tracked field
+     */
+    @Override
+    protected LinkedHashMap<String, String> trackedValues()
+    {
+        LinkedHashMap<String, String> values = super.trackedValues();
+
+        values.put("gender", u_gender != null ? u_gender.name() : null);
+        values.put("card", u_card);
+        return values;
+    }
+
+    /**
+     * Returns an independent copy of this user, including its gender, payment card, version and change snapshot.
+     *
+     * @return a copy of this user
+     */
+    @Override
+    public User copy()
+    {
+        return copyStateTo(new User(p_id, p_email, p_username, p_password, p_name, p_lastname, p_telephone, u_gender, u_card));
+    }
+
     /**
      * Returns a simplified string representation of the user. This method overrides the parent class toString() to provide only the username, which is useful for display purposes in UI components like combo boxes and lists.
      *
@@ -0,0 +1,93 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Represents the users created, modified or deleted after a given watermark. The watermark is a monotonically increasing change position of the data store, so a listing can be kept up to date by repeatedly asking for the changes after the watermark of the previous response, at a cost proportional to the number of changes instead of the number of users.
+ */
+public class UserChanges
+{
+
+    private final ArrayList<User> users;
+    private final ArrayList<Integer> deletedIds;
+    private final long watermark;
+    private final boolean complete;
+
+    /**
+     * Constructs a new complete set of changes.
+     *
+     * @param users the users created or modified after the requested watermark, with their current data
+     * @param deletedIds the IDs of the users deleted after the requested watermark
+     * @param watermark the position of the last change included, to be used in the next request
+     */
+    public UserChanges(ArrayList<User> users, ArrayList<Integer> deletedIds, long watermark)
+    {
+        this(users, deletedIds, watermark, true);
+    }
+
+    /**
+     * Constructs a new set of changes that may be incomplete.
+     *
+     * @param users the users created or modified after the requested watermark, with their current data
+     * @param deletedIds the IDs of the users deleted after the requested watermark
+     * @param watermark the position of the last change included, to be used in the next request
+     * @param complete false if the changes after the requested watermark are no longer recorded, so the listing must be loaded again
+     */
+    public UserChanges(ArrayList<User> users, ArrayList<Integer> deletedIds, long watermark, boolean complete)
+    {
+        this.users = users;
+        this.deletedIds = deletedIds;
+        this.watermark = watermark;
+        this.complete = complete;
+    }
+
+    /**
+     * Returns the users created or modified after the requested watermark.
+     *
+     * @return an ArrayList with the current data of each changed user
+     */
+    public ArrayList<User> getUsers()
+    {
+        return users;
+    }
+
+    /**
+     * Returns the IDs of the users deleted after the requested watermark.
+     *
+     * @return an ArrayList with the deleted user IDs
+     */
+    public ArrayList<Integer> getDeletedIds()
+    {
+        return deletedIds;
+    }
+
+    /**
+     * Returns the watermark to request the following changes.
+     *
+     * @return the position of the last change included, or the requested watermark if there were no changes
+     */
+    public long getWatermark()
+    {
+        return watermark;
+    }
+
+    /**
+     * Checks if every change after the requested watermark is included. When the data store has already discarded part of them, the listing kept up to date with them must be loaded again from scratch.
+     *
+     * @return true if the changes are complete, false if the listing must be reloaded
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    /**
+     * Checks if no user was changed or deleted.
+     *
+     * @return true if there are no changes, false otherwise
+     */
+    public boolean isEmpty()
+    {
+        return users.isEmpty() && deletedIds.isEmpty();
+    }
+}
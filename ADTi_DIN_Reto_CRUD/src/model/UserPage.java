@@ -0,0 +1,80 @@
+package model;
+
+import java.util.ArrayList;
+
+/**
+ * Represents one page of users returned by a keyset paginated listing. Pages are ordered by profile ID, and the ID of the last user of the page acts as the cursor to request the next one, so every page is read through the primary key index no matter how deep the listing goes.
+ */
+public class UserPage
+{
+
+    private final ArrayList<User> users;
+    private final int lastId;
+    private final boolean hasMore;
+
+    /**
+     * Constructs a new page with the users read and the cursor to continue the listing.
+     *
+     * @param users the users contained in this page, ordered by ID
+     * @param lastId the ID of the last user of the page, or the requested cursor if the page is empty
+     * @param hasMore true if there are more users after this page, false otherwise
+     */
+    public UserPage(ArrayList<User> users, int lastId, boolean hasMore)
+    {
+        this.users = users;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Builds a page from the rows read by a listing that asked for one user more than the page size. The extra user, if present, is discarded and only signals that another page exists.
+     *
+     * @param fetched the users read, up to pageSize + 1 ordered by ID
+     * @param afterId the cursor used to request the page
+     * @param pageSize the maximum number of users of the page
+     * @return the page built from the fetched users
+     */
+    public static UserPage fromFetched(ArrayList<User> fetched, int afterId, int pageSize)
+    {
+        boolean hasMore = fetched.size() > pageSize;
+
+        if (hasMore)
+        {
+            fetched.remove(pageSize);
+        }
+
+        int lastId = fetched.isEmpty() ? afterId : fetched.get(fetched.size() - 1).getId();
+
+        return new UserPage(fetched, lastId, hasMore);
+    }
+
+    /**
+     * Returns the users contained in this page.
+     *
+     * @return an ArrayList with the users of the page
+     */
+    public ArrayList<User> getUsers()
+    {
+        return users;
+    }
+
+    /**
+     * Returns the cursor to request the following page.
+     *
+     * @return the ID of the last user of the page
+     */
+    public int getLastId()
+    {
+        return lastId;
+    }
+
+    /**
+     * Checks if there are more users after this page.
+     *
+     * @return true if another page can be requested, false if this is the last one
+     */
+    public boolean hasMore()
+    {
+        return hasMore;
+    }
+}
@@ -0,0 +1,54 @@
+package model;
+
+/**
+ * Lightweight projection of a user containing only its identifier and username. This class is used to list users in selection components without loading their personal data, passwords or payment cards, which are fetched by ID only when a user is selected.
+ */
+public class UserSummary
+{
+
+    private final int id;
+    private final String username;
+
+    /**
+     * Constructs a new UserSummary with the identifier and username of a user.
+     *
+     * @param id the unique identifier of the user
+     * @param username the username of the user
+     */
+    public UserSummary(int id, String username)
+    {
+        this.id = id;
+        this.username = username;
+    }
+
+    /**
+     * Returns the unique identifier of the user.
+     *
+     * @return the user ID
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns the username of the user.
+     *
+     * @return the user username
+     */
+    public String getUsername()
+    {
+        return username;
+    }
+
+    /**
+     * Returns the username as the string representation, which is useful for display purposes in UI components like combo boxes and lists.
+     *
+     * @return the username of the user
+     */
+    @Override
+    public String toString()
+    {
+        return username;
+    }
+}
@@ -0,0 +1,120 @@
+package pool;
+
+import exception.OurException;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a single borrowed database connection handed out by the ConnectionLeaseManager. A lease records who requested the connection and when, and returns the connection to the pool as soon as it is closed, so it is intended to be used inside a try-with-resources block.
+ *
+ * Closing a lease more than once has no effect, which makes it safe to close from both normal and error paths.
+ */
+public class ConnectionLease implements AutoCloseable
+{
+
+    private final long id;
+    private final String owner;
+    private final long startTime;
+    private final Connection con;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    /**
+     * Constructs a new lease over a pooled connection. Leases are only created by the ConnectionLeaseManager once a connection has been obtained from the pool.
+     *
+     * @param id the sequential identifier of the lease
+     * @param owner a description of the operation and thread holding the connection
+     * @param con the pooled connection being leased
+     */
+    ConnectionLease(long id, String owner, Connection con)
+    {
+        this.id = id;
+        this.owner = owner;
+        this.con = con;
+        this.startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the sequential identifier of this lease.
+     *
+     * @return the lease identifier
+     */
+    public long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns the description of the operation and thread that holds this lease.
+     *
+     * @return the lease owner
+     */
+    public String getOwner()
+    {
+        return owner;
+    }
+
+    /**
+     * Returns the moment in which the connection was handed out.
+     *
+     * @return the lease start time in milliseconds since the epoch
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * Returns how long the connection has been held by this lease.
+     *
+     * @return the elapsed time in milliseconds since the lease started
+     */
+    public long getHeldMillis()
+    {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Returns the leased connection to be used for SQL operations. The connection must not be closed directly, the lease must be closed instead.
+     *
+     * @return the leased Connection object
+     */
+    public Connection getConnection()
+    {
+        return con;
+    }
+
+    /**
+     * Checks if the connection of this lease has already been returned to the pool.
+     *
+     * @return true if the lease has been released, false otherwise
+     */
+    public boolean isReleased()
+    {
+        return released.get();
+    }
+
+    /**
+     * Returns the leased connection to the pool immediately. Only the first call has effect.
+     *
+     * @throws OurException if the connection could not be returned to the pool
+     */
+    @Override
+    public void close() throws OurException
+    {
+        if (released.compareAndSet(false, true))
+        {
+            ConnectionLeaseManager.release(this);
+        }
+    }
+
+    /**
+     * Returns a string representation of the lease with its identifier, owner and held time.
+     *
+     * @return a string describing the lease
+     */
+    @Override
+    public String toString()
+    {
+        return "Lease #" + id + " (" + owner + ", " + getHeldMillis() + " ms)";
+    }
+}
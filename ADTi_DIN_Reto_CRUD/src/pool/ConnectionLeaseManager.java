@@ -0,0 +1,185 @@
+package pool;
+
+import exception.ErrorMessages;
+import exception.OurException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out pooled database connections as tracked leases without a dedicated thread per operation. Callers block on a fair semaphore sized to the pool, so waiting callers are served in arrival order as soon as another lease is closed, and each connection goes back to the pool the moment its lease is released.
+ *
+ * Every active lease is registered with its owner and start time, so the connections currently in use can be inspected at any moment. The semaphore follows the size of the pool when its configuration is reloaded, and every borrow is recorded in the metrics of the pool.
+ */
+public class ConnectionLeaseManager
+{
+
+    private static final ResizableSemaphore PERMITS = new ResizableSemaphore(ConnectionPool.getMaxTotal());
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final ConcurrentHashMap<Long, ConnectionLease> LEASES = new ConcurrentHashMap<>();
+
+    static
+    {
+        ConnectionPool.addResizeListener(PERMITS::resize);
+    }
+
+    private ConnectionLeaseManager()
+    {
+    }
+
+    /**
+     * Obtains a connection from the pool wrapped in a lease. This method blocks until a connection is free or the configured maximum wait time of the pool is exceeded.
+     *
+     * @param owner a short description of the operation requesting the connection
+     * @return the lease holding the borrowed connection
+     * @throws OurException if no connection becomes available in time or the pool fails to provide one
+     */
+    public static ConnectionLease acquire(String owner) throws OurException
+    {
+        long start = System.nanoTime();
+
+        try
+        {
+            // A zero timeout keeps the arrival order of the fair semaphore, unlike tryAcquire()
+            if (!PERMITS.tryAcquire(0, TimeUnit.MILLISECONDS))
+            {
+                ConnectionPool.getMetrics().recordExhausted();
+
+                if (!PERMITS.tryAcquire(ConnectionPool.getMaxWaitMillis(), TimeUnit.MILLISECONDS))
+                {
+                    ConnectionPool.getMetrics().recordTimeout();
+                    throw new OurException(ErrorMessages.TIMEOUT);
+                }
+            }
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new OurException(ErrorMessages.TIMEOUT);
+        }
+
+        try
+        {
+            Connection con = ConnectionPool.getConnection();
+            ConnectionLease lease = new ConnectionLease(SEQUENCE.incrementAndGet(), owner + "@" + Thread.currentThread().getName(), con);
+            LEASES.put(lease.getId(), lease);
+            ConnectionPool.getMetrics().recordBorrow(System.nanoTime() - start);
+
+            return lease;
+        }
+        catch (SQLException ex)
+        {
+            PERMITS.release();
+            throw new OurException("Error obtaining a connection from pool: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the connection of a lease to the pool and frees its slot for the next waiting caller. This method is invoked by ConnectionLease when it is closed.
+     *
+     * @param lease the lease to release
+     * @throws OurException if the connection could not be returned to the pool
+     */
+    static void release(ConnectionLease lease) throws OurException
+    {
+        LEASES.remove(lease.getId());
+
+        try
+        {
+            ConnectionPool.recordStatementUsage(lease.getConnection());
+            lease.getConnection().close();
+        }
+        catch (SQLException ex)
+        {
+            throw new OurException("Error returning the connection: " + ex.getMessage());
+        } finally
+        {
+            PERMITS.release();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the leases that currently hold a connection.
+     *
+     * @return a list with the active leases
+     */
+    public static List<ConnectionLease> getActiveLeases()
+    {
+        return new ArrayList<>(LEASES.values());
+    }
+
+    /**
+     * Returns the number of connections that can be leased at the same time, which follows the maximum total of the pool.
+     *
+     * @return the current lease limit
+     */
+    public static int getLeaseLimit()
+    {
+        return PERMITS.getLimit();
+    }
+
+    /**
+     * Returns the number of callers currently blocked waiting for a connection.
+     *
+     * @return the number of waiting callers
+     */
+    public static int getWaitingCount()
+    {
+        return PERMITS.getQueueLength();
+    }
+
+    /**
+     * Fair semaphore whose number of permits can be changed while permits are held. Shrinking it below the number of leases in use does not revoke them; new callers simply wait until enough leases are released.
+     */
+    private static final class ResizableSemaphore extends Semaphore
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private int limit;
+
+        /**
+         * Constructs a new fair semaphore with the given number of permits.
+         *
+         * @param limit the initial number of permits
+         */
+        ResizableSemaphore(int limit)
+        {
+            super(limit, true);
+            this.limit = limit;
+        }
+
+        /**
+         * Changes the number of permits.
+         *
+         * @param newLimit the new number of permits
+         */
+        synchronized void resize(int newLimit)
+        {
+            if (newLimit > limit)
+            {
+                release(newLimit - limit);
+            }
+            else if (newLimit < limit)
+            {
+                reducePermits(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+
+        /**
+         * Returns the current number of permits.
+         *
+         * @return the number of permits
+         */
+        synchronized int getLimit()
+        {
+            return limit;
+        }
+    }
+}
@@ -1,40 +1,87 @@
 package pool;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.apache.commons.dbcp2.PoolingConnection;
+import org.apache.commons.pool2.KeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Database connection pool implementation using Apache Commons DBCP2. This class provides a singleton connection pool that manages database connections efficiently by reusing existing connections rather than creating new ones for each request.
  *
- * The pool is configured with optimal parameters for connection management, including initial size, maximum connections, and timeout settings to ensure reliable database access while preventing resource exhaustion.
+ * The pool sizing, validation, eviction, connection lifetime and prepared statement pooling are read from classConfig.properties, or from the file given by the pool.config system property, and the file is checked periodically so that changes are applied without restarting the application. Sizes and wait times are applied to the running pool directly; the other settings only take effect on new connections, so the pool is restarted when they change.
+ *
+ * With prepared statement pooling enabled, every pooled connection keeps its statements open and hands the same statement back when the same SQL is prepared again, so repeated operations skip the parse and plan on the server. This is the only statement cache: the connection URL prepares statements on the server but leaves the statement cache of the driver off, since statements kept open by the pool never reach it. The statements requested and the cache misses of each connection are added to the metrics when its lease is released.
  */
 public class ConnectionPool
 {
 
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
     // Pool unique instance
-    private static final BasicDataSource DATASOURCE;
+    private static final BasicDataSource DATASOURCE = new BasicDataSource();
+    private static final PoolMetrics METRICS = new PoolMetrics();
+    private static final List<IntConsumer> RESIZE_LISTENERS = new CopyOnWriteArrayList<>();
+    private static final Path CONFIG_FILE = findConfigFile();
+
+    // Counters of each statement cache already added to the metrics
+    private static final Map<PoolingConnection, long[]> STATEMENT_COUNTS = new WeakHashMap<>();
+
+    private static Properties applied;
+    private static long configModified;
 
     // Pool static configuration
     static
     {
-        DATASOURCE = new BasicDataSource();
+        Properties config = loadConfig();
 
-        // Import configuration from classConfig.properties file
-        ResourceBundle configFile = ResourceBundle.getBundle("config.classConfig");
+        DATASOURCE.setUrl(config.getProperty("Conn"));
+        DATASOURCE.setUsername(config.getProperty("DBUser"));
+        DATASOURCE.setPassword(config.getProperty("DBPass"));
+        DATASOURCE.setDriverClassName(config.getProperty("Driver"));
 
-        DATASOURCE.setUrl(configFile.getString("Conn"));
-        DATASOURCE.setUsername(configFile.getString("DBUser"));
-        DATASOURCE.setPassword(configFile.getString("DBPass"));
-        DATASOURCE.setDriverClassName(configFile.getString("Driver"));
+        // Needed to reach the statement cache of each connection for the metrics
+        DATASOURCE.setAccessToUnderlyingConnectionAllowed(true);
 
-        // Pool parameters
-        DATASOURCE.setInitialSize(2);      // Start connections
-        DATASOURCE.setMaxTotal(4);        // Max total connextions
-        DATASOURCE.setMinIdle(2);          // Min inactive connections
-        DATASOURCE.setMaxIdle(4);          // Max inactive connections
-        DATASOURCE.setMaxWaitMillis(10000); // Max wait time for a connection
+        configure(config);
+        watchConfig(Integer.parseInt(config.getProperty("PoolConfigReloadSeconds")));
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+        {
+            LOGGER.info("Closing connection pool: " + METRICS);
+
+            try
+            {
+                DATASOURCE.close();
+            }
+            catch (SQLException ex)
+            {
+                LOGGER.log(Level.WARNING, "Connection pool could not be closed", ex);
+            }
+        }, "pool-shutdown"));
     }
 
     /**
@@ -47,4 +94,285 @@ public class ConnectionPool
     {
         return DATASOURCE.getConnection();
     }
+
+    /**
+     * Applies pool settings. Sizes, wait time and eviction interval are changed on the running pool; if the validation query, the connection lifetime or the prepared statement pooling change after the pool has been configured once, the pool is restarted so that every new connection uses them. Listeners registered with addResizeListener are notified when the maximum total changes.
+     *
+     * @param config the properties containing the Pool settings
+     */
+    public static synchronized void configure(Properties config)
+    {
+        int maxTotal = Integer.parseInt(config.getProperty("PoolMaxTotal"));
+        int previousMaxTotal = DATASOURCE.getMaxTotal();
+        boolean restart = applied != null && (!Objects.equals(applied.getProperty("PoolValidationQuery"), config.getProperty("PoolValidationQuery"))
+                || !Objects.equals(applied.getProperty("PoolMaxConnLifetimeMillis"), config.getProperty("PoolMaxConnLifetimeMillis"))
+                || !Objects.equals(applied.getProperty("PoolPreparedStatements"), config.getProperty("PoolPreparedStatements"))
+                || !Objects.equals(applied.getProperty("PoolMaxOpenPreparedStatements"), config.getProperty("PoolMaxOpenPreparedStatements")));
+
+        // Pool parameters
+        DATASOURCE.setInitialSize(Integer.parseInt(config.getProperty("PoolInitialSize")));
+        DATASOURCE.setMaxTotal(maxTotal);
+        DATASOURCE.setMinIdle(Integer.parseInt(config.getProperty("PoolMinIdle")));
+        DATASOURCE.setMaxIdle(Integer.parseInt(config.getProperty("PoolMaxIdle")));
+        DATASOURCE.setMaxWait(Duration.ofMillis(Long.parseLong(config.getProperty("PoolMaxWaitMillis"))));
+        DATASOURCE.setDurationBetweenEvictionRuns(Duration.ofMillis(Long.parseLong(config.getProperty("PoolEvictionIntervalMillis"))));
+        DATASOURCE.setValidationQuery(config.getProperty("PoolValidationQuery"));
+        DATASOURCE.setMaxConn(Duration.ofMillis(Long.parseLong(config.getProperty("PoolMaxConnLifetimeMillis"))));
+        DATASOURCE.setPoolPreparedStatements(Boolean.parseBoolean(config.getProperty("PoolPreparedStatements")));
+        DATASOURCE.setMaxOpenPreparedStatements(Integer.parseInt(config.getProperty("PoolMaxOpenPreparedStatements")));
+
+        if (restart)
+        {
+            try
+            {
+                // Borrowed connections are closed when they are returned to the old pool
+                DATASOURCE.restart();
+            }
+            catch (SQLException ex)
+            {
+                LOGGER.log(Level.WARNING, "Connection pool could not be restarted", ex);
+            }
+        }
+
+        applied = config;
+
+        if (maxTotal != previousMaxTotal)
+        {
+            for (IntConsumer listener : RESIZE_LISTENERS)
+            {
+                listener.accept(maxTotal);
+            }
+        }
+    }
+
+    /**
+     * Adds to the metrics the prepared statements requested on a connection since the last time it was recorded. The statement cache of the connection counts every statement borrowed and every statement created, and the difference between both is the number of requests served from the cache.
+     *
+     * @param con a connection obtained from this pool, before it is closed
+     */
+    static void recordStatementUsage(Connection con)
+    {
+        Connection delegate = con;
+
+        while (delegate instanceof DelegatingConnection && !(delegate instanceof PoolingConnection))
+        {
+            delegate = ((DelegatingConnection<?>) delegate).getDelegate();
+        }
+
+        if (!(delegate instanceof PoolingConnection))
+        {
+            return;
+        }
+
+        PoolingConnection pooling = (PoolingConnection) delegate;
+        KeyedObjectPool<?, ?> statements = pooling.getStatementPool();
+
+        if (!(statements instanceof GenericKeyedObjectPool))
+        {
+            return;
+        }
+
+        long borrowed = ((GenericKeyedObjectPool<?, ?>) statements).getBorrowedCount();
+        long created = ((GenericKeyedObjectPool<?, ?>) statements).getCreatedCount();
+
+        synchronized (STATEMENT_COUNTS)
+        {
+            long[] recorded = STATEMENT_COUNTS.computeIfAbsent(pooling, k -> new long[2]);
+            METRICS.recordStatements(borrowed - recorded[0], created - recorded[1]);
+            recorded[0] = borrowed;
+            recorded[1] = created;
+        }
+    }
+
+    /**
+     * Reads the configuration again and applies it to the pool. This method is invoked periodically when the configuration file changes, and can also be invoked directly.
+     */
+    public static void reload()
+    {
+        try
+        {
+            configure(loadConfig());
+            LOGGER.info("Connection pool configuration reloaded: maxTotal=" + getMaxTotal() + " maxWait=" + getMaxWaitMillis() + "ms");
+        }
+        catch (RuntimeException ex)
+        {
+            LOGGER.log(Level.WARNING, "Invalid connection pool configuration, keeping the current one", ex);
+        }
+    }
+
+    /**
+     * Registers a listener notified with the new maximum total whenever the pool is resized.
+     *
+     * @param listener the listener receiving the new maximum total
+     */
+    public static void addResizeListener(IntConsumer listener)
+    {
+        RESIZE_LISTENERS.add(listener);
+    }
+
+    /**
+     * Returns the maximum number of connections the pool can hand out at the same time.
+     *
+     * @return the maximum total of connections of the pool
+     */
+    public static int getMaxTotal()
+    {
+        return DATASOURCE.getMaxTotal();
+    }
+
+    /**
+     * Returns the minimum number of idle connections the pool keeps open, which is the number of connections filled in advance by the startup warm-up.
+     *
+     * @return the minimum idle connections of the pool
+     */
+    public static int getMinIdle()
+    {
+        return DATASOURCE.getMinIdle();
+    }
+
+    /**
+     * Returns the maximum time a caller may wait for a connection before giving up.
+     *
+     * @return the maximum wait time in milliseconds
+     */
+    public static long getMaxWaitMillis()
+    {
+        return DATASOURCE.getMaxWaitDuration().toMillis();
+    }
+
+    /**
+     * Returns the number of connections currently borrowed from the pool.
+     *
+     * @return the number of active connections
+     */
+    public static int getNumActive()
+    {
+        return DATASOURCE.getNumActive();
+    }
+
+    /**
+     * Returns the number of connections currently idle in the pool.
+     *
+     * @return the number of idle connections
+     */
+    public static int getNumIdle()
+    {
+        return DATASOURCE.getNumIdle();
+    }
+
+    /**
+     * Returns the borrow statistics of the pool.
+     *
+     * @return the PoolMetrics of the pool
+     */
+    public static PoolMetrics getMetrics()
+    {
+        return METRICS;
+    }
+
+    /**
+     * Loads the configuration from the classConfig.properties bundle, overridden by the configuration file if it can be read directly.
+     *
+     * @return the configuration properties
+     */
+    private static Properties loadConfig()
+    {
+        // Import configuration from classConfig.properties file
+        ResourceBundle configFile = ResourceBundle.getBundle("config.classConfig");
+        Properties config = new Properties();
+
+        for (String key : configFile.keySet())
+        {
+            config.setProperty(key, configFile.getString(key));
+        }
+
+        if (CONFIG_FILE != null && Files.isReadable(CONFIG_FILE))
+        {
+            try (InputStream in = Files.newInputStream(CONFIG_FILE))
+            {
+                config.load(in);
+            }
+            catch (IOException ex)
+            {
+                LOGGER.log(Level.WARNING, "Could not read " + CONFIG_FILE, ex);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Locates the configuration file to watch: the file given by the pool.config system property, or classConfig.properties itself when it is a file on disk rather than an entry of a jar.
+     *
+     * @return the path of the configuration file, or null if there is no file that can be watched
+     */
+    private static Path findConfigFile()
+    {
+        String external = System.getProperty("pool.config");
+
+        if (external != null)
+        {
+            return Paths.get(external);
+        }
+
+        URL resource = ConnectionPool.class.getResource("/config/classConfig.properties");
+
+        try
+        {
+            return resource != null && resource.getProtocol().equals("file") ? Paths.get(resource.toURI()) : null;
+        }
+        catch (URISyntaxException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Starts a daemon thread that checks the modification time of the configuration file and reloads the pool settings when it changes.
+     *
+     * @param seconds the interval between checks, or 0 to disable the reloading
+     */
+    private static void watchConfig(int seconds)
+    {
+        if (CONFIG_FILE == null || seconds <= 0)
+        {
+            return;
+        }
+
+        configModified = lastModified();
+
+        ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread thread = new Thread(r, "pool-config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        watcher.scheduleWithFixedDelay(() ->
+        {
+            long modified = lastModified();
+
+            if (modified != configModified)
+            {
+                configModified = modified;
+                reload();
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the modification time of the configuration file.
+     *
+     * @return the modification time in milliseconds, or 0 if the file cannot be read
+     */
+    private static long lastModified()
+    {
+        try
+        {
+            return Files.getLastModifiedTime(CONFIG_FILE).toMillis();
+        }
+        catch (IOException ex)
+        {
+            return 0;
+        }
+    }
 }
@@ -0,0 +1,209 @@
+package pool;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the borrow statistics of the database connection pool. Every borrowed connection records how long its caller waited, in a histogram of fixed buckets, and every borrow that found the pool exhausted or gave up waiting is counted, so the pool can be sized against the real concurrency of the application. The prepared statements requested on pooled connections are counted too, together with how many of them had to be prepared because they were not in the statement cache of their connection.
+ *
+ * All counters are atomic, so recording never blocks the callers borrowing connections.
+ */
+public class PoolMetrics
+{
+
+    /**
+     * Upper bounds in milliseconds of the buckets of the borrow wait histogram. The last bucket counts every wait longer than the greatest bound.
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS =
+    {
+        1, 5, 10, 50, 100, 500, 1000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong exhaustions = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong statementRequests = new AtomicLong();
+    private final AtomicLong statementPrepares = new AtomicLong();
+
+    /**
+     * Records a borrowed connection and the time its caller waited for it.
+     *
+     * @param waitNanos the time from the request to the delivery of the connection, in nanoseconds
+     */
+    public void recordBorrow(long waitNanos)
+    {
+        long waitMillis = waitNanos / 1_000_000;
+        int bucket = 0;
+
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && waitMillis >= BUCKET_BOUNDS_MILLIS[bucket])
+        {
+            bucket++;
+        }
+
+        buckets.incrementAndGet(bucket);
+        borrows.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Records a borrow that found every connection in use and had to wait for one to be returned.
+     */
+    public void recordExhausted()
+    {
+        exhaustions.incrementAndGet();
+    }
+
+    /**
+     * Records a borrow that gave up because no connection was returned within the maximum wait time.
+     */
+    public void recordTimeout()
+    {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * Records the prepared statements requested on a connection since its previous record.
+     *
+     * @param requests the number of prepared statements requested
+     * @param prepares the number of them that were not cached and had to be prepared
+     */
+    public void recordStatements(long requests, long prepares)
+    {
+        statementRequests.addAndGet(requests);
+        statementPrepares.addAndGet(prepares);
+    }
+
+    /**
+     * Returns the upper bounds of the buckets of the borrow wait histogram.
+     *
+     * @return the bounds in milliseconds; the histogram has one bucket more for the waits above the last bound
+     */
+    public static long[] getBucketBoundsMillis()
+    {
+        return BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * Returns a snapshot of the borrow wait histogram. Bucket i counts the waits shorter than bound i and not shorter than bound i - 1.
+     *
+     * @return the number of borrows of each bucket
+     */
+    public long[] getBorrowWaitHistogram()
+    {
+        long[] snapshot = new long[buckets.length()];
+
+        for (int i = 0; i < snapshot.length; i++)
+        {
+            snapshot[i] = buckets.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of connections borrowed.
+     *
+     * @return the number of borrows
+     */
+    public long getBorrowCount()
+    {
+        return borrows.get();
+    }
+
+    /**
+     * Returns the average time a caller waited for a connection.
+     *
+     * @return the average wait in milliseconds, or 0 if no connection has been borrowed
+     */
+    public double getAverageWaitMillis()
+    {
+        long count = borrows.get();
+        return count == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Returns the longest time a caller waited for a connection.
+     *
+     * @return the maximum wait in milliseconds
+     */
+    public double getMaxWaitMillis()
+    {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the number of borrows that found the pool exhausted.
+     *
+     * @return the number of exhaustion events
+     */
+    public long getExhaustedCount()
+    {
+        return exhaustions.get();
+    }
+
+    /**
+     * Returns the number of borrows that timed out.
+     *
+     * @return the number of timeouts
+     */
+    public long getTimeoutCount()
+    {
+        return timeouts.get();
+    }
+
+    /**
+     * Returns the number of prepared statements requested on pooled connections.
+     *
+     * @return the number of statement requests
+     */
+    public long getStatementRequestCount()
+    {
+        return statementRequests.get();
+    }
+
+    /**
+     * Returns the number of prepared statement requests that missed the statement cache and were prepared on the connection.
+     *
+     * @return the number of statements prepared
+     */
+    public long getStatementPrepareCount()
+    {
+        return statementPrepares.get();
+    }
+
+    /**
+     * Returns the fraction of the prepared statement requests served from the statement cache of their connection.
+     *
+     * @return the hit rate between 0 and 1, or 0 if no statement has been requested
+     */
+    public double getStatementHitRate()
+    {
+        long requests = statementRequests.get();
+        return requests == 0 ? 0 : 1 - (double) statementPrepares.get() / requests;
+    }
+
+    /**
+     * Describes the collected statistics in a single line, suitable for logging.
+     *
+     * @return the borrow statistics
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder histogram = new StringBuilder();
+        long[] counts = getBorrowWaitHistogram();
+
+        for (int i = 0; i < counts.length; i++)
+        {
+            histogram.append(i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] : ">=" + BUCKET_BOUNDS_MILLIS[i - 1])
+                    .append("ms=").append(counts[i]).append(i < counts.length - 1 ? " " : "");
+        }
+
+        return String.format("borrows=%d avgWait=%.2fms maxWait=%.2fms exhausted=%d timeouts=%d [%s] statements=%d hitRate=%.1f%%",
+                getBorrowCount(), getAverageWaitMillis(), getMaxWaitMillis(), getExhaustedCount(), getTimeoutCount(), histogram,
+                getStatementRequestCount(), getStatementHitRate() * 100);
+    }
+}
@@ -8,12 +8,16 @@ USE users_manager;
 -- CREATING THE TABLES --
 CREATE TABLE db_profile (
   P_ID int PRIMARY KEY AUTO_INCREMENT,
-  P_EMAIL varchar(50) NOT NULL UNIQUE,
-  P_USERNAME varchar(40) NOT NULL UNIQUE,
+  P_EMAIL varchar(50) NOT NULL,
+  P_USERNAME varchar(40) NOT NULL,
   P_PASSWORD varchar(40) NOT NULL,
   P_NAME varchar(50) NOT NULL,
   P_LASTNAME varchar(40) NOT NULL,
-  P_TELEPHONE char(9) NOT NULL
+  P_TELEPHONE char(9) NOT NULL,
+  P_VERSION int NOT NULL DEFAULT 0,
+  CONSTRAINT UK_PROFILE_EMAIL UNIQUE (P_EMAIL),
+  CONSTRAINT UK_PROFILE_USERNAME UNIQUE (P_USERNAME),
+  INDEX IX_PROFILE_LASTNAME (P_LASTNAME)
 );
 
 CREATE TABLE db_user (
@@ -29,6 +33,28 @@ CREATE TABLE db_admin (
   FOREIGN KEY (A_ID) REFERENCES db_profile (P_ID) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+-- CHANGE LOG: EVERY WRITE ON A PROFILE GETS AN INCREASING SEQUENCE, DELETIONS ARE KEPT AS TOMBSTONES --
+CREATE TABLE db_change_log (
+  C_SEQ bigint PRIMARY KEY AUTO_INCREMENT,
+  C_PROFILE_ID int NOT NULL,
+  C_DELETED boolean NOT NULL DEFAULT FALSE
+);
+
+DELIMITER //
+CREATE TRIGGER tr_profile_insert AFTER INSERT ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_update AFTER UPDATE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_delete AFTER DELETE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID, C_DELETED) VALUES (OLD.P_ID, TRUE);
+//
+CREATE TRIGGER tr_user_update AFTER UPDATE ON db_user FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.U_ID);
+//
+DELIMITER ;
+
 -- INSERTS IN THE TABLES --
 INSERT INTO db_profile (P_EMAIL, P_USERNAME, P_PASSWORD, P_NAME, P_LASTNAME, P_TELEPHONE) VALUES
 ('admin@sandia.com', 'admin', 'Ab123456', 'Admin', 'Sandia', '123456789'),
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import dao.DBImplementation;
+import exception.OurException;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import model.User;
+import pool.ConnectionPool;
+
+/**
+ * Compares the latency of repeated logins and updates through DBImplementation with the prepared statement pooling of the connection pool disabled and enabled. Without pooling every operation prepares its statements again; with pooling each connection hands back the statements it already prepared.
+ *
+ * It needs the MySQL database of the application created with the script in the sql folder, since it logs in as user1 and updates that user. Run it with the main method; it prints the average time per operation and the statement cache hit rate of each configuration.
+ */
+public class PreparedStatementBenchmark
+{
+
+    private static final int WARMUP = 200;
+    private static final int OPERATIONS = 2000;
+
+    public static void main(String[] args) throws OurException
+    {
+        DBImplementation dao = new DBImplementation();
+
+        run("No statement pooling", dao, configuration(false));
+        run("Statement pooling", dao, configuration(true));
+    }
+
+    /**
+     * Builds the pool configuration from classConfig.properties with the prepared statement pooling set as given.
+     */
+    private static Properties configuration(boolean poolPreparedStatements)
+    {
+        ResourceBundle bundle = ResourceBundle.getBundle("config.classConfig");
+        Properties config = new Properties();
+
+        for (String key : bundle.keySet())
+        {
+            config.setProperty(key, bundle.getString(key));
+        }
+        config.setProperty("PoolPreparedStatements", String.valueOf(poolPreparedStatements));
+        return config;
+    }
+
+    /**
+     * Applies a pool configuration and prints the average latency of logins and updates with it.
+     */
+    private static void run(String name, DBImplementation dao, Properties config) throws OurException
+    {
+        ConnectionPool.configure(config);
+
+        User user = (User) dao.login("user1", "Ab123456");
+        for (int i = 0; i < WARMUP; i++)
+        {
+            dao.login("user1", "Ab123456");
+            user = update(dao, user, i);
+        }
+
+        long requestsBefore = ConnectionPool.getMetrics().getStatementRequestCount();
+        long preparesBefore = ConnectionPool.getMetrics().getStatementPrepareCount();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++)
+        {
+            dao.login("user1", "Ab123456");
+        }
+        long login = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++)
+        {
+            user = update(dao, user, i);
+        }
+        long updates = System.nanoTime() - start;
+
+        long requests = ConnectionPool.getMetrics().getStatementRequestCount() - requestsBefore;
+        long prepares = ConnectionPool.getMetrics().getStatementPrepareCount() - preparesBefore;
+
+        System.out.printf("%-22s login %8.1f us/op   update %8.1f us/op   statements %d   hit rate %.1f%%%n", name,
+                login / 1000.0 / OPERATIONS, updates / 1000.0 / OPERATIONS,
+                requests, requests == 0 ? 0 : 100.0 * (requests - prepares) / requests);
+    }
+
+    /**
+     * Changes the telephone of the user, so every update writes a real change.
+     */
+    private static User update(DBImplementation dao, User user, int i) throws OurException
+    {
+        user.setTelephone(i % 2 == 0 ? "987654321" : "987654322");
+        dao.updateUser(user);
+        return user;
+    }
+}
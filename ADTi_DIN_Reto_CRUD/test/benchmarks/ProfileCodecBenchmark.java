@@ -0,0 +1,124 @@
+package benchmarks;
+
+import dao.ProfileCodec;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import model.Gender;
+import model.User;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * Compares the decoding of user documents through a generic Document followed by field by field mapping, as MongoImplements used to do, against decoding them directly with ProfileCodec. Both paths read the same serialized BSON, as the driver does when a batch arrives from the server.
+ *
+ * Run it with the main method; it prints the average time per document and the allocated bytes per document of each path.
+ */
+public class ProfileCodecBenchmark
+{
+
+    private static final int DOCUMENTS = 10000;
+    private static final int ROUNDS = 30;
+
+    public static void main(String[] args)
+    {
+        List<byte[]> documents = buildDocuments();
+        DocumentCodec documentCodec = new DocumentCodec();
+        ProfileCodec<User> profileCodec = new ProfileCodec<>(User.class);
+
+        for (int i = 0; i < ROUNDS / 3; i++)
+        {
+            decodeWithDocument(documents, documentCodec);
+            decodeWithCodec(documents, profileCodec);
+        }
+
+        report("Document + mapping", documents, () -> decodeWithDocument(documents, documentCodec));
+        report("ProfileCodec", documents, () -> decodeWithCodec(documents, profileCodec));
+    }
+
+    /**
+     * Serializes the sample user documents into BSON.
+     */
+    private static List<byte[]> buildDocuments()
+    {
+        List<byte[]> documents = new ArrayList<>();
+        ProfileCodec<User> codec = new ProfileCodec<>(User.class);
+
+        for (int i = 0; i < DOCUMENTS; i++)
+        {
+            User user = new User(i, "user" + i + "@sandia.com", "user" + i, "Ab123456", "User " + i, "Sandia", "987654321",
+                    Gender.values()[i % 3], "4321432143214321");
+            BasicOutputBuffer buffer = new BasicOutputBuffer();
+            codec.encode(new BsonBinaryWriter(buffer), user, EncoderContext.builder().build());
+            documents.add(buffer.toByteArray());
+        }
+        return documents;
+    }
+
+    /**
+     * Decodes every document into a Document and maps it to a User, like the previous MongoImplements code.
+     */
+    private static int decodeWithDocument(List<byte[]> documents, DocumentCodec codec)
+    {
+        int checksum = 0;
+
+        for (byte[] bytes : documents)
+        {
+            Document doc = codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build());
+            User u = new User();
+            u.setId(doc.getInteger("_id"));
+            u.setEmail(doc.getString("email"));
+            u.setUsername(doc.getString("username"));
+            u.setPassword(doc.getString("password"));
+            u.setName(doc.getString("name"));
+            u.setLastname(doc.getString("lastname"));
+            u.setTelephone(doc.getString("telephone"));
+            u.setGender(Gender.valueOf(doc.getString("gender").toUpperCase()));
+            u.setCard(doc.getString("card"));
+            checksum += u.getId();
+        }
+        return checksum;
+    }
+
+    /**
+     * Decodes every document directly into a User with ProfileCodec.
+     */
+    private static int decodeWithCodec(List<byte[]> documents, ProfileCodec<User> codec)
+    {
+        int checksum = 0;
+
+        for (byte[] bytes : documents)
+        {
+            checksum += codec.decode(new BsonBinaryReader(ByteBuffer.wrap(bytes)), DecoderContext.builder().build()).getId();
+        }
+        return checksum;
+    }
+
+    /**
+     * Runs a decoding path several times and prints its average time and allocation per document.
+     */
+    private static void report(String name, List<byte[]> documents, Runnable decoding)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < ROUNDS; i++)
+        {
+            decoding.run();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        long total = (long) ROUNDS * documents.size();
+
+        System.out.printf("%-20s %8.1f ns/doc %8d bytes/doc%n", name, (double) elapsed / total, allocated / total);
+    }
+}
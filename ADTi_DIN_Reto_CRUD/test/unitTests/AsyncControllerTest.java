@@ -0,0 +1,121 @@
+package unitTests;
+
+import controller.AsyncController;
+import controller.Controller;
+import dao.MockModelDAO;
+import exception.ErrorMessages;
+import exception.OurException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import model.Profile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the AsyncController class using MockModelDAO for isolation. These tests verify that operations are executed in the background, that failures complete the futures exceptionally and that a saturated executor rejects new operations immediately.
+ */
+public class AsyncControllerTest
+{
+
+    private MockModelDAO mockDAO;
+    private AsyncController async;
+
+    /**
+     * Sets up the test environment before each test method execution. Initializes a MockModelDAO and an AsyncController with a single thread and a single queue slot.
+     */
+    @Before
+    public void setUp()
+    {
+        mockDAO = new MockModelDAO();
+        async = new AsyncController(new Controller(mockDAO), 1, 1);
+    }
+
+    /**
+     * Stops the background executor after each test.
+     */
+    @After
+    public void tearDown()
+    {
+        async.shutdown();
+    }
+
+    /**
+     * Tests that an asynchronous login completes with the mock profile.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testLogin() throws Exception
+    {
+        Profile result = async.login("testuser", "password").get();
+
+        assertNotNull(result);
+        assertEquals("testuser", result.getUsername());
+    }
+
+    /**
+     * Tests that an exception thrown by the DAO completes the future exceptionally with the same exception.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExceptionCompletesFuture() throws Exception
+    {
+        mockDAO.setShouldThrowException(true, new OurException("Test exception"));
+
+        try
+        {
+            async.getUserSummaries().get();
+            fail("Expected the future to fail");
+        }
+        catch (ExecutionException ex)
+        {
+            assertTrue(ex.getCause() instanceof OurException);
+            assertEquals("Test exception", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Tests that operations are rejected immediately when the thread and the queue are busy.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testSaturationRejects() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = async.submit(() ->
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        });
+        CompletableFuture<Boolean> queued = async.deleteUser(1);
+        CompletableFuture<Boolean> rejected = async.deleteUser(2);
+
+        assertTrue(rejected.isCompletedExceptionally());
+
+        try
+        {
+            rejected.get();
+        }
+        catch (ExecutionException ex)
+        {
+            assertEquals(ErrorMessages.BUSY, ex.getCause().getMessage());
+        }
+
+        release.countDown();
+        assertTrue(running.get());
+        assertTrue(queued.get());
+    }
+}
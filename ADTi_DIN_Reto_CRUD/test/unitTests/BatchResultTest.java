@@ -0,0 +1,63 @@
+package unitTests;
+
+import model.BatchResult;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for BatchResult
+ */
+public class BatchResultTest
+{
+
+    private BatchResult result;
+
+    /**
+     * Sets up test data before each test
+     */
+    @Before
+    public void setUp()
+    {
+        result = new BatchResult();
+        result.add(1, true);
+        result.add(2, false);
+        result.add(3, true);
+    }
+
+    /**
+     * Tests success lookup by ID
+     */
+    @Test
+    public void testIsSuccess()
+    {
+        assertTrue(result.isSuccess(1));
+        assertFalse(result.isSuccess(2));
+        assertFalse(result.isSuccess(99));
+    }
+
+    /**
+     * Tests success and failure counts
+     */
+    @Test
+    public void testCounts()
+    {
+        assertEquals(3, result.size());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(1, result.getFailedIds().size());
+        assertEquals(Integer.valueOf(2), result.getFailedIds().get(0));
+        assertFalse(result.isComplete());
+    }
+
+    /**
+     * Tests an empty batch is complete
+     */
+    @Test
+    public void testEmptyBatch()
+    {
+        BatchResult empty = new BatchResult();
+
+        assertEquals(0, empty.size());
+        assertTrue(empty.isComplete());
+    }
+}
@@ -0,0 +1,129 @@
+package unitTests;
+
+import dao.Bulkhead;
+import dao.BulkheadModelDAO;
+import dao.MockModelDAO;
+import dao.UserCursor;
+import exception.ErrorMessages;
+import exception.OverloadedException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Bulkhead and BulkheadModelDAO classes. These tests verify that operations beyond the concurrency limit wait in the queue, that they are rejected at once when the queue is full or after waiting past the deadline, and that an open cursor keeps its slot until it is closed.
+ */
+public class BulkheadTest
+{
+
+    /**
+     * Tests that an operation arriving with a full queue is rejected at once, while the queued one runs as soon as the slot is freed.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testQueueFullRejection() throws Exception
+    {
+        Bulkhead bulkhead = new Bulkhead("READ", 1, 1, 5000);
+        bulkhead.enter();
+
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                return bulkhead.execute(() -> "done");
+            }
+            catch (Exception ex)
+            {
+                return ex.getMessage();
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.getQueueDepth() == 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(5);
+        }
+        assertEquals(1, bulkhead.getQueueDepth());
+
+        try
+        {
+            bulkhead.enter();
+            fail("Expected OverloadedException");
+        }
+        catch (OverloadedException ex)
+        {
+            assertTrue(ex.isQueueFull());
+            assertEquals("READ", ex.getOperationClass());
+            assertEquals(ErrorMessages.OVERLOADED, ex.getMessage());
+        }
+
+        bulkhead.exit();
+
+        assertEquals("done", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getQueueDepth());
+        assertEquals(1, bulkhead.getMaxQueueDepth());
+        assertEquals(2, bulkhead.getAdmittedCount());
+        assertEquals(1, bulkhead.getQueueFullCount());
+        assertEquals(0, bulkhead.getActiveCount());
+    }
+
+    /**
+     * Tests that an operation waiting longer than the queue deadline is rejected and leaves the queue.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testDeadlineRejection() throws Exception
+    {
+        Bulkhead bulkhead = new Bulkhead("WRITE", 1, 5, 50);
+        bulkhead.enter();
+
+        try
+        {
+            bulkhead.execute(() -> "done");
+            fail("Expected OverloadedException");
+        }
+        catch (OverloadedException ex)
+        {
+            assertFalse(ex.isQueueFull());
+        }
+
+        assertEquals(0, bulkhead.getQueueDepth());
+        assertEquals(1, bulkhead.getExpiredCount());
+        assertEquals(1, bulkhead.getRejectedCount());
+        assertEquals(1, bulkhead.getActiveCount());
+    }
+
+    /**
+     * Tests that an open cursor keeps its slot of the bulk class until it is closed, and that other operation classes are not affected by it.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testCursorHoldsBulkSlot() throws Exception
+    {
+        BulkheadModelDAO dao = new BulkheadModelDAO(new MockModelDAO(),
+                new Bulkhead("READ", 1, 0, 0), new Bulkhead("WRITE", 1, 0, 0), new Bulkhead("BULK", 1, 0, 0));
+
+        UserCursor cursor = dao.streamUsers(10);
+
+        try
+        {
+            dao.getUsers();
+            fail("Expected OverloadedException");
+        }
+        catch (OverloadedException ex)
+        {
+            assertEquals("BULK", ex.getOperationClass());
+        }
+        assertNotNull(dao.login("testuser", "password"));
+
+        cursor.close();
+        cursor.close();
+
+        assertNotNull(dao.getUsers());
+        assertEquals(0, dao.getBulkhead(BulkheadModelDAO.OperationClass.BULK).getActiveCount());
+    }
+}
@@ -0,0 +1,247 @@
+package unitTests;
+
+import dao.CachingModelDAO;
+import dao.MockModelDAO;
+import exception.OurException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import model.Gender;
+import model.Profile;
+import model.User;
+import model.UserChanges;
+import model.UserSummary;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for CachingModelDAO
+ */
+public class CachingModelDAOTest
+{
+
+    private AtomicInteger calls;
+    private AtomicLong now;
+    private String storedPassword;
+    private CachingModelDAO cache;
+
+    /**
+     * Sets up a cache over a counting mock DAO before each test
+     */
+    @Before
+    public void setUp()
+    {
+        calls = new AtomicInteger();
+        now = new AtomicLong();
+        storedPassword = "Ab123456";
+
+        MockModelDAO mock = new MockModelDAO()
+        {
+            @Override
+            public User getUser(int id) throws OurException
+            {
+                calls.incrementAndGet();
+                return new User(id, "user" + id + "@test.com", "user" + id, "Ab123456",
+                        "Test", "User", "123456789", Gender.MALE, "1234567890123456");
+            }
+
+            @Override
+            public Profile login(String credential, String password) throws OurException
+            {
+                calls.incrementAndGet();
+
+                if ((credential.equals("user1") || credential.equals("user1@test.com")) && password.equals(storedPassword))
+                {
+                    return new User(1, "user1@test.com", "user1", storedPassword,
+                            "Test", "User", "123456789", Gender.MALE, "1234567890123456");
+                }
+                return null;
+            }
+
+            @Override
+            public ArrayList<UserSummary> getUserSummaries() throws OurException
+            {
+                calls.incrementAndGet();
+                ArrayList<UserSummary> summaries = new ArrayList<>();
+                summaries.add(new UserSummary(1, "user1"));
+                summaries.add(new UserSummary(2, "user2"));
+                return summaries;
+            }
+
+            @Override
+            public UserChanges getUsersChangedSince(long watermark) throws OurException
+            {
+                ArrayList<User> changed = new ArrayList<>();
+                changed.add(new User(3, "user3@test.com", "user3", "Ab123456",
+                        "Test", "User", "123456789", Gender.FEMALE, "1234567890123456"));
+                return new UserChanges(changed, new ArrayList<>(Arrays.asList(2)), watermark + 2);
+            }
+        };
+
+        cache = new CachingModelDAO(mock, 2, 1000, now::get);
+    }
+
+    /**
+     * Tests repeated reads are answered from the cache
+     */
+    @Test
+    public void testReadThrough() throws OurException
+    {
+        User first = cache.getUser(1);
+        User second = cache.getUser(1);
+
+        assertNotSame(first, second);
+        assertEquals(first.getUsername(), second.getUsername());
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests entries are reloaded once their time to live has passed
+     */
+    @Test
+    public void testExpiration() throws OurException
+    {
+        cache.getUser(1);
+        now.addAndGet(2_000_000_000L);
+        cache.getUser(1);
+
+        assertEquals(2, calls.get());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Tests the least recently used profile is evicted when the cache is full
+     */
+    @Test
+    public void testLruEviction() throws OurException
+    {
+        cache.getUser(1);
+        cache.getUser(2);
+        cache.getUser(1);
+        cache.getUser(3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.getUser(1);
+        assertEquals(3, calls.get());
+        cache.getUser(2);
+        assertEquals(4, calls.get());
+    }
+
+    /**
+     * Tests logins always check the password against the DAO, and a failed login evicts the cached profile
+     */
+    @Test
+    public void testLoginChecksDatabase() throws OurException
+    {
+        assertEquals(1, cache.login("user1", "Ab123456").getId());
+        assertEquals(1, cache.login("user1@test.com", "Ab123456").getId());
+        assertEquals(2, calls.get());
+
+        cache.getUser(1);
+        assertEquals(2, calls.get());
+
+        // Another client changes the password
+        storedPassword = "Cd123456";
+
+        assertNull(cache.login("user1", "Ab123456"));
+        assertEquals(3, calls.get());
+
+        cache.getUser(1);
+        assertEquals(4, calls.get());
+    }
+
+    /**
+     * Tests changes made to a returned profile do not reach the cache until they are saved
+     */
+    @Test
+    public void testReturnedCopies() throws OurException
+    {
+        User user = cache.getUser(1);
+        user.setName("Unsaved");
+
+        assertEquals("Test", cache.getUser(1).getName());
+        assertTrue(user.isDirty());
+    }
+
+    /**
+     * Tests writes update or invalidate the cached entries and summaries
+     */
+    @Test
+    public void testWriteInvalidation() throws OurException
+    {
+        User user = cache.getUser(1);
+        assertEquals(2, cache.getUserSummaries().size());
+
+        user.setName("Changed");
+        cache.updateUser(user);
+        assertEquals("Changed", cache.getUser(1).getName());
+
+        cache.deleteUser(2);
+        ArrayList<UserSummary> summaries = cache.getUserSummaries();
+
+        assertEquals(1, summaries.size());
+        assertEquals(1, summaries.get(0).getId());
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests synchronized changes are applied to the cached entries and summaries
+     */
+    @Test
+    public void testChangesSince() throws OurException
+    {
+        cache.getUser(2);
+        cache.getUserSummaries();
+
+        UserChanges changes = cache.getUsersChangedSince(10);
+        assertEquals(12, changes.getWatermark());
+
+        ArrayList<UserSummary> summaries = cache.getUserSummaries();
+        assertEquals(2, summaries.size());
+        assertEquals(1, summaries.get(0).getId());
+        assertEquals(3, summaries.get(1).getId());
+
+        assertEquals("user3", cache.getUser(3).getUsername());
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests pushed changes replace cached users and remove deleted ones without reloading
+     */
+    @Test
+    public void testApplyChanges() throws OurException
+    {
+        cache.getUser(1);
+        cache.getUserSummaries();
+
+        ArrayList<User> changed = new ArrayList<>();
+        changed.add(new User(1, "user1@test.com", "renamed", "Ab123456",
+                "Test", "User", "123456789", Gender.MALE, "1234567890123456"));
+        cache.applyChanges(new UserChanges(changed, new ArrayList<>(Arrays.asList(2)), 5));
+
+        assertEquals("renamed", cache.getUser(1).getUsername());
+        ArrayList<UserSummary> summaries = cache.getUserSummaries();
+        assertEquals(1, summaries.size());
+        assertEquals("renamed", summaries.get(0).getUsername());
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests incomplete changes clear the cache, so the users are read again
+     */
+    @Test
+    public void testIncompleteChangesClear() throws OurException
+    {
+        cache.getUser(1);
+        cache.applyChanges(new UserChanges(new ArrayList<>(), new ArrayList<>(), 5, false));
+
+        cache.getUser(1);
+        assertEquals(2, calls.get());
+    }
+}
@@ -2,14 +2,20 @@ package unitTests;
 
 import controller.Controller;
 import dao.MockModelDAO;
+import dao.UserCursor;
 import exception.OurException;
+import model.LoggedProfile;
 import model.Profile;
 import model.User;
 import model.Gender;
+import model.UserPage;
+import model.UserSummary;
 import org.junit.Test;
 import org.junit.Before;
 import static org.junit.Assert.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import model.BatchResult;
 
 /**
  * Unit tests for the Controller class using MockModelDAO for isolation. These tests verify that the Controller properly delegates operations to the DAO and correctly handles both successful responses and exceptions.
@@ -51,6 +57,25 @@ public class ControllerTest
         assertEquals("testuser", result.getUsername());
     }
 
+    /**
+     * Tests the combined registration and login through the Controller. Verifies that the registered profile is returned and set as the logged profile.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testRegisterAndLogin() throws OurException
+    {
+        User testUser = new User("new@test.com", "newuser", "password123",
+                "New", "User", "987654321", Gender.FEMALE, "9876543210987654");
+
+        Profile result = controller.registerAndLogin(testUser);
+
+        assertNotNull(result);
+        assertEquals(1, result.getId());
+        assertSame(result, LoggedProfile.getInstance().getProfile());
+        LoggedProfile.getInstance().clear();
+    }
+
     /**
      * Tests user login functionality through the Controller. Verifies that login returns the expected user profile with correct data.
      *
@@ -82,6 +107,95 @@ public class ControllerTest
         assertEquals("testuser", result.get(0).getUsername());
     }
 
+    /**
+     * Tests streaming of users through the Controller. Verifies that the cursor returns the mock user and then reports that no more users are available.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testStreamUsers() throws OurException
+    {
+        try (UserCursor cursor = controller.streamUsers(100))
+        {
+            assertTrue(cursor.hasNext());
+            assertEquals("testuser", cursor.next().getUsername());
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    /**
+     * Tests paginated retrieval of users through the Controller. Verifies that the first page contains the mock user and that the cursor moves past it.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testGetUsersPage() throws OurException
+    {
+        UserPage first = controller.getUsersPage(0, 10);
+
+        assertEquals(1, first.getUsers().size());
+        assertEquals(1, first.getLastId());
+        assertFalse(first.hasMore());
+
+        UserPage next = controller.getUsersPage(first.getLastId(), 10);
+
+        assertTrue(next.getUsers().isEmpty());
+        assertEquals(1, next.getLastId());
+        assertFalse(next.hasMore());
+    }
+
+    /**
+     * Tests retrieval of user summaries and of a single user by ID through the Controller. Verifies that the summary exposes the mock user's ID and username and that the full record can be loaded from it.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testGetUserSummariesAndUser() throws OurException
+    {
+        ArrayList<UserSummary> summaries = controller.getUserSummaries();
+
+        assertEquals(1, summaries.size());
+        assertEquals(1, summaries.get(0).getId());
+        assertEquals("testuser", summaries.get(0).toString());
+
+        User user = controller.getUser(summaries.get(0).getId());
+
+        assertNotNull(user);
+        assertEquals("test@test.com", user.getEmail());
+        assertNull(controller.getUser(99));
+    }
+
+    /**
+     * Tests the paged summaries and the user count through the Controller. Verifies that a page starting after the mock user is empty and that counting back from the end finds it.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testGetUserSummariesPageAndCount() throws OurException
+    {
+        assertEquals(1, controller.countUsers());
+        assertEquals(1, controller.getUserSummariesPage(0, 0, 10).get(0).getId());
+        assertTrue(controller.getUserSummariesPage(1, 0, 10).isEmpty());
+        assertTrue(controller.getUserSummariesPage(0, 1, 10).isEmpty());
+        assertEquals(1, controller.getUserSummariesPage(Integer.MAX_VALUE, -1, 10).get(0).getId());
+    }
+
+    /**
+     * Tests the prefix search through the Controller. Verifies that the mock user is found by the start of its username, email or lastname in any case and not by text in the middle.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testSearchUsers() throws OurException
+    {
+        assertEquals(1, controller.searchUsers("test", 10).size());
+        assertEquals(1, controller.searchUsers("test@", 10).size());
+        assertEquals(1, controller.searchUsers("Us", 10).size());
+        assertEquals(1, controller.searchUsers("TEST", 10).size());
+        assertTrue(controller.searchUsers("ser", 10).isEmpty());
+        assertTrue(controller.searchUsers("test", 0).isEmpty());
+    }
+
     /**
      * Tests user update operation through the Controller. Verifies that the update operation returns true for successful updates.
      *
@@ -112,6 +226,31 @@ public class ControllerTest
         assertFalse(result2);
     }
 
+    /**
+     * Tests batch update and batch deletion through the Controller. Verifies that a result is reported for every item and that invalid IDs are reported as failed.
+     *
+     * @throws exception.OurException
+     */
+    @Test
+    public void testBatchOperations() throws OurException
+    {
+        User first = new User(1, "a@test.com", "a", "Ab123456", "A", "A", "111111111", Gender.MALE, "1234567890123456");
+        User second = new User(2, "b@test.com", "b", "Ab123456", "B", "B", "222222222", Gender.FEMALE, "1234567890123456");
+
+        BatchResult updated = controller.updateUsers(Arrays.asList(first, second));
+
+        assertEquals(2, updated.size());
+        assertTrue(updated.isComplete());
+
+        BatchResult deleted = controller.deleteUsers(new int[]
+        {
+            1, 0
+        });
+
+        assertTrue(deleted.isSuccess(1));
+        assertFalse(deleted.isSuccess(0));
+    }
+
     /**
      * Tests exception propagation from DAO to Controller. Verifies that exceptions thrown by the DAO are properly propagated.
      *
@@ -0,0 +1,94 @@
+package unitTests;
+
+import dao.HiLoIdAllocator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for HiLoIdAllocator
+ */
+public class HiLoIdAllocatorTest
+{
+
+    private AtomicInteger counter;
+    private AtomicInteger reservations;
+    private HiLoIdAllocator allocator;
+
+    /**
+     * Sets up an in-memory counter before each test
+     */
+    @Before
+    public void setUp()
+    {
+        counter = new AtomicInteger(4);
+        reservations = new AtomicInteger();
+        allocator = new HiLoIdAllocator(size ->
+        {
+            reservations.incrementAndGet();
+            return counter.addAndGet(size);
+        }, 10);
+    }
+
+    /**
+     * Tests IDs continue after the counter and one block is reserved per block size
+     */
+    @Test
+    public void testSequentialIds()
+    {
+        for (int i = 5; i <= 25; i++)
+        {
+            assertEquals(i, allocator.nextId());
+        }
+        assertEquals(3, reservations.get());
+    }
+
+    /**
+     * Tests reset skips the rest of the block and resumes from the counter
+     */
+    @Test
+    public void testReset()
+    {
+        assertEquals(5, allocator.nextId());
+        counter.set(100);
+        allocator.reset();
+
+        assertEquals(101, allocator.nextId());
+    }
+
+    /**
+     * Tests concurrent callers never receive the same ID
+     */
+    @Test
+    public void testConcurrentIdsAreUnique() throws InterruptedException
+    {
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++)
+        {
+            Thread thread = new Thread(() ->
+            {
+                for (int i = 0; i < 1000; i++)
+                {
+                    ids.add(allocator.nextId());
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        assertEquals(8000, ids.size());
+        assertEquals(800, reservations.get());
+    }
+}
@@ -0,0 +1,67 @@
+package unitTests;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import config.MongoPoolMonitor;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for MongoPoolMonitor
+ */
+public class MongoPoolMonitorTest
+{
+
+    private final ServerId server = new ServerId(new ClusterId(), new ServerAddress());
+    private final ConnectionId connection = new ConnectionId(server);
+
+    /**
+     * Tests the counters follow the life of a connection through the pool
+     */
+    @Test
+    public void testConnectionLifecycle()
+    {
+        MongoPoolMonitor monitor = new MongoPoolMonitor();
+
+        monitor.connectionCreated(new ConnectionCreatedEvent(connection));
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, 1));
+        assertEquals(1, monitor.getWaitingCount());
+
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(connection, 1, 2_000_000));
+        assertEquals(0, monitor.getWaitingCount());
+        assertEquals(1, monitor.getInUseCount());
+        assertEquals(2.0, monitor.getAverageCheckOutMillis(), 0.001);
+
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(connection, 1));
+        monitor.connectionClosed(new ConnectionClosedEvent(connection, ConnectionClosedEvent.Reason.IDLE));
+        assertEquals(0, monitor.getInUseCount());
+        assertEquals(0, monitor.getOpenCount());
+        assertEquals(1, monitor.getCheckOutCount());
+    }
+
+    /**
+     * Tests failed check outs are counted and timeouts are told apart
+     */
+    @Test
+    public void testCheckOutFailures()
+    {
+        MongoPoolMonitor monitor = new MongoPoolMonitor();
+
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, 1));
+        monitor.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(server, 1, ConnectionCheckOutFailedEvent.Reason.TIMEOUT, 0));
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server, 2));
+        monitor.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(server, 2, ConnectionCheckOutFailedEvent.Reason.POOL_CLOSED, 0));
+
+        assertEquals(0, monitor.getWaitingCount());
+        assertEquals(2, monitor.getCheckOutFailureCount());
+        assertEquals(1, monitor.getCheckOutTimeoutCount());
+    }
+}
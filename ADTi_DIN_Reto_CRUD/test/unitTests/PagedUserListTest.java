@@ -0,0 +1,198 @@
+package unitTests;
+
+import controller.PagedUserList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import model.UserSummary;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for PagedUserList
+ */
+public class PagedUserListTest
+{
+
+    private List<int[]> requests;
+    private List<Consumer<ArrayList<UserSummary>>> pending;
+    private PagedUserList list;
+
+    /**
+     * Sets up a list of 25 users with IDs 2, 4, ... 50 in pages of 10 whose loads complete when the test decides
+     */
+    @Before
+    public void setUp()
+    {
+        requests = new ArrayList<>();
+        pending = new ArrayList<>();
+        list = new PagedUserList(10, 2, (fromId, offset, limit, onLoaded, onFailed) ->
+        {
+            requests.add(new int[]
+            {
+                fromId, offset, limit
+            });
+            pending.add(onLoaded);
+        });
+        list.reset(25);
+    }
+
+    /**
+     * Completes the load of the given request with the users found the way the DAO finds them, from a total of the given number of users
+     *
+     * @param request the position of the request
+     * @param total the number of users that exist
+     */
+    private void complete(int request, int total)
+    {
+        int[] r = requests.get(request);
+        int first = 0;
+
+        while (first < total && (first + 1) * 2 <= r[0])
+        {
+            first++;
+        }
+        first += r[1];
+
+        ArrayList<UserSummary> page = new ArrayList<>();
+        for (int i = Math.max(0, first); i < total && page.size() < r[2]; i++)
+        {
+            page.add(new UserSummary((i + 1) * 2, "user" + (i + 1) * 2));
+        }
+        pending.get(request).accept(page);
+    }
+
+    /**
+     * Tests items are null until their page is loaded and every page is requested once
+     */
+    @Test
+    public void testLoadsOnDemand()
+    {
+        assertEquals(25, list.size());
+        assertNull(list.get(3));
+        assertNull(list.get(7));
+        assertEquals(1, requests.size());
+
+        complete(0, 25);
+        assertEquals(8, list.get(3).getId());
+        assertEquals(1, requests.size());
+    }
+
+    /**
+     * Tests the following page starts right after the last ID of the loaded page
+     */
+    @Test
+    public void testUsesKnownCursor()
+    {
+        list.get(0);
+        complete(0, 25);
+
+        list.get(15);
+        assertArrayEquals(new int[]
+        {
+            20, 0, 10
+        }, requests.get(1));
+    }
+
+    /**
+     * Tests a distant page is counted from the closest cursor, the end of the listing included, and lands on its exact position
+     */
+    @Test
+    public void testSeeksDistantPage()
+    {
+        list.get(24);
+        assertArrayEquals(new int[]
+        {
+            Integer.MAX_VALUE, -5, 10
+        }, requests.get(0));
+        complete(0, 25);
+        assertEquals(42, list.get(20).getId());
+        assertEquals(50, list.get(24).getId());
+
+        list.get(10);
+        assertArrayEquals(new int[]
+        {
+            0, 10, 10
+        }, requests.get(1));
+        complete(1, 25);
+        assertEquals(22, list.get(10).getId());
+    }
+
+    /**
+     * Tests a short page removes the positions after it instead of leaving them empty
+     */
+    @Test
+    public void testShortPageShrinks()
+    {
+        list.get(10);
+        complete(0, 15);
+
+        assertEquals(15, list.size());
+        assertEquals(30, list.get(14).getId());
+    }
+
+    /**
+     * Tests only the configured number of pages is kept and loads started before a reset are ignored
+     */
+    @Test
+    public void testBoundedAndReset()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            list.get(i * 10);
+            complete(i, 25);
+        }
+        assertEquals(2, list.getLoadedPageCount());
+
+        list.reset(20);
+        assertEquals(0, list.getLoadedPageCount());
+        list.get(0);
+        complete(0, 25);
+        assertEquals(0, list.getLoadedPageCount());
+
+        complete(3, 20);
+        assertEquals(2, list.get(0).getId());
+    }
+
+    /**
+     * Tests changed users are replaced in the loaded pages without new requests
+     */
+    @Test
+    public void testUpdate()
+    {
+        list.get(0);
+        complete(0, 25);
+
+        list.update(Arrays.asList(new UserSummary(6, "renamed"), new UserSummary(40, "unloaded")));
+
+        assertEquals("renamed", list.get(2).getUsername());
+        assertTrue(list.isLoaded(6));
+        assertFalse(list.isLoaded(40));
+        assertEquals(1, requests.size());
+    }
+
+    /**
+     * Tests only the pages holding IDs from the changed one on are discarded
+     */
+    @Test
+    public void testInvalidateKeepsLowerPages()
+    {
+        list.get(0);
+        complete(0, 25);
+        list.get(10);
+        complete(1, 25);
+
+        list.invalidate(30, 24);
+
+        assertEquals(24, list.size());
+        assertEquals(1, list.getLoadedPageCount());
+        assertEquals(2, list.get(0).getId());
+        assertNull(list.get(10));
+        assertArrayEquals(new int[]
+        {
+            20, 0, 10
+        }, requests.get(2));
+    }
+}
@@ -0,0 +1,82 @@
+package unitTests;
+
+import java.util.Properties;
+import java.util.ResourceBundle;
+import org.junit.Test;
+import pool.ConnectionLeaseManager;
+import pool.ConnectionPool;
+import pool.PoolMetrics;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for PoolMetrics and the runtime resizing of the connection pool
+ */
+public class PoolMetricsTest
+{
+
+    /**
+     * Tests borrow waits are counted in the bucket of their duration
+     */
+    @Test
+    public void testHistogram()
+    {
+        PoolMetrics metrics = new PoolMetrics();
+
+        metrics.recordBorrow(200_000);
+        metrics.recordBorrow(7_000_000);
+        metrics.recordBorrow(3_000_000_000L);
+        metrics.recordExhausted();
+        metrics.recordTimeout();
+
+        long[] histogram = metrics.getBorrowWaitHistogram();
+        assertEquals(PoolMetrics.getBucketBoundsMillis().length + 1, histogram.length);
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[2]);
+        assertEquals(1, histogram[histogram.length - 1]);
+        assertEquals(3, metrics.getBorrowCount());
+        assertEquals(3000.0, metrics.getMaxWaitMillis(), 0.001);
+        assertEquals(1, metrics.getExhaustedCount());
+        assertEquals(1, metrics.getTimeoutCount());
+    }
+
+    /**
+     * Tests the statement hit rate counts the requests that did not prepare a new statement
+     */
+    @Test
+    public void testStatementHitRate()
+    {
+        PoolMetrics metrics = new PoolMetrics();
+        assertEquals(0, metrics.getStatementHitRate(), 0.001);
+
+        metrics.recordStatements(10, 4);
+        metrics.recordStatements(30, 0);
+
+        assertEquals(40, metrics.getStatementRequestCount());
+        assertEquals(0.9, metrics.getStatementHitRate(), 0.001);
+    }
+
+    /**
+     * Tests the lease limit follows the maximum total of the pool when its configuration changes
+     */
+    @Test
+    public void testResizeFollowsPool()
+    {
+        ResourceBundle bundle = ResourceBundle.getBundle("config.classConfig");
+        Properties config = new Properties();
+        for (String key : bundle.keySet())
+        {
+            config.setProperty(key, bundle.getString(key));
+        }
+
+        int original = ConnectionLeaseManager.getLeaseLimit();
+        assertEquals(ConnectionPool.getMaxTotal(), original);
+
+        config.setProperty("PoolMaxTotal", String.valueOf(original + 3));
+        ConnectionPool.configure(config);
+        assertEquals(original + 3, ConnectionLeaseManager.getLeaseLimit());
+
+        config.setProperty("PoolMaxTotal", String.valueOf(original));
+        ConnectionPool.configure(config);
+        assertEquals(original, ConnectionLeaseManager.getLeaseLimit());
+    }
+}
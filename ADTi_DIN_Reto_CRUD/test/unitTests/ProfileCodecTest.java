@@ -0,0 +1,112 @@
+package unitTests;
+
+import dao.ProfileCodec;
+import model.Admin;
+import model.Gender;
+import model.Profile;
+import model.User;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecConfigurationException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Test class for ProfileCodec
+ */
+public class ProfileCodecTest
+{
+
+    /**
+     * Encodes a profile into a BSON document with the codec of its class.
+     */
+    private <T extends Profile> BsonDocument encode(ProfileCodec<T> codec, T profile)
+    {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), profile, EncoderContext.builder().build());
+        return document;
+    }
+
+    /**
+     * Decodes a BSON document with the given codec.
+     */
+    private <T extends Profile> T decode(ProfileCodec<T> codec, BsonDocument document)
+    {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    /**
+     * Tests that a user survives an encode and decode round trip
+     */
+    @Test
+    public void testUserRoundTrip()
+    {
+        User user = new User(2, "user1@sandia.com", "user1", "Ab123456", "User 1", "Sandia", "987654321", Gender.FEMALE, "4321432143214321");
+
+        BsonDocument document = encode(new ProfileCodec<>(User.class), user);
+        User decoded = decode(new ProfileCodec<>(User.class), document);
+
+        assertEquals(2, document.getInt32("_id").getValue());
+        assertEquals("FEMALE", document.getString("gender").getValue());
+        assertEquals(user.getEmail(), decoded.getEmail());
+        assertEquals(user.getUsername(), decoded.getUsername());
+        assertEquals(Gender.FEMALE, decoded.getGender());
+        assertEquals(user.getCard(), decoded.getCard());
+    }
+
+    /**
+     * Tests that the discriminator decodes an admin document as an Admin
+     */
+    @Test
+    public void testAdminDecodedAsProfile()
+    {
+        Admin admin = new Admin(1, "admin@sandia.com", "admin", "Ab123456", "Admin", "Sandia", "123456789", "1234123412341234");
+
+        Profile decoded = decode(new ProfileCodec<>(Profile.class), encode(new ProfileCodec<>(Admin.class), admin));
+
+        assertTrue(decoded instanceof Admin);
+        assertEquals("1234123412341234", ((Admin) decoded).getCurrent_account());
+    }
+
+    /**
+     * Tests that gender values are mapped ignoring case and unknown values become OTHER
+     */
+    @Test
+    public void testGenderMapping()
+    {
+        BsonDocument document = BsonDocument.parse("{_id: 3, username: 'u', gender: 'male', extra: {a: 1}}");
+        assertEquals(Gender.MALE, decode(new ProfileCodec<>(User.class), document).getGender());
+
+        document = BsonDocument.parse("{_id: 4, username: 'u', gender: 'unknown'}");
+        assertEquals(Gender.OTHER, decode(new ProfileCodec<>(User.class), document).getGender());
+    }
+
+    /**
+     * Tests that an admin document cannot be decoded as a User
+     */
+    @Test(expected = CodecConfigurationException.class)
+    public void testAdminAsUserFails()
+    {
+        decode(new ProfileCodec<>(User.class), BsonDocument.parse("{_id: 1, username: 'admin', currentAccount: '1234123412341234'}"));
+    }
+
+    /**
+     * Tests that the version is encoded, decoded, and defaults to 0 for documents without it
+     */
+    @Test
+    public void testVersion()
+    {
+        User user = new User(2, "user1@sandia.com", "user1", "Ab123456", "User 1", "Sandia", "987654321", Gender.FEMALE, "4321432143214321");
+        user.setVersion(7);
+
+        BsonDocument document = encode(new ProfileCodec<>(User.class), user);
+
+        assertEquals(7, document.getInt32("version").getValue());
+        assertEquals(7, decode(new ProfileCodec<>(User.class), document).getVersion());
+        assertEquals(0, decode(new ProfileCodec<>(User.class), BsonDocument.parse("{_id: 3, username: 'u', gender: 'MALE'}")).getVersion());
+        assertFalse(decode(new ProfileCodec<>(User.class), document).isDirty());
+    }
+}
@@ -36,6 +36,12 @@ public class ProfileTest
         {
             return "TestProfile: " + getUsername();
         }
+
+        @Override
+        public TestProfile copy()
+        {
+            return copyStateTo(new TestProfile(p_id, p_email, p_username, p_password, p_name, p_lastname, p_telephone));
+        }
     }
 
     private TestProfile defaultProfile;
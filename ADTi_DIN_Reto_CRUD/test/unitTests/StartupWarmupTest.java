@@ -0,0 +1,82 @@
+package unitTests;
+
+import controller.StartupWarmup;
+import dao.MockModelDAO;
+import dao.ModelDAO;
+import exception.ErrorMessages;
+import exception.OurException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the StartupWarmup class using MockModelDAO for isolation. These tests verify that the DAO is opened in the background, that readiness is only published once it is open, and that a failure opening it is delivered as the original exception. The connection pool is not filled, since it needs a MySQL server.
+ */
+public class StartupWarmupTest
+{
+
+    /**
+     * Tests that the warm-up runs outside the calling thread and completes with the opened DAO only after it has been opened.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStartCompletesWhenOpened() throws Exception
+    {
+        MockModelDAO mockDAO = new MockModelDAO();
+        CountDownLatch opening = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Thread[] opener = new Thread[1];
+
+        CompletableFuture<ModelDAO> ready = StartupWarmup.start(() ->
+        {
+            opener[0] = Thread.currentThread();
+
+            try
+            {
+                opening.await();
+            }
+            catch (InterruptedException ex)
+            {
+                throw new OurException(ErrorMessages.DATABASE);
+            }
+            return mockDAO;
+        }, false);
+
+        assertFalse(ready.isDone());
+
+        opening.countDown();
+
+        assertSame(mockDAO, ready.get(5, TimeUnit.SECONDS));
+        assertNotSame(caller, opener[0]);
+        assertTrue(opener[0].isDaemon());
+    }
+
+    /**
+     * Tests that a failure opening the DAO completes the readiness future exceptionally with the same exception.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testStartFailure() throws Exception
+    {
+        CompletableFuture<ModelDAO> ready = StartupWarmup.start(() ->
+        {
+            throw new OurException(ErrorMessages.DATABASE);
+        }, false);
+
+        try
+        {
+            ready.get(5, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        }
+        catch (ExecutionException ex)
+        {
+            assertTrue(ex.getCause() instanceof OurException);
+            assertEquals(ErrorMessages.DATABASE, ex.getCause().getMessage());
+        }
+    }
+}
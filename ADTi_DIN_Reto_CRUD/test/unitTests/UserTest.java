@@ -194,4 +194,36 @@ public class UserTest
         assertEquals(Gender.FEMALE, userWithoutId.getGender());
         assertEquals(Gender.OTHER, userWithOtherGender.getGender());
     }
+
+    /**
+     * Tests a user never marked as clean reports every field as changed
+     */
+    @Test
+    public void testUntrackedUserIsDirty()
+    {
+        assertTrue(userWithId.isDirty());
+        assertEquals(8, userWithId.getChangedValues().size());
+    }
+
+    /**
+     * Tests only the fields modified after the snapshot are reported as changed
+     */
+    @Test
+    public void testChangedValues()
+    {
+        userWithId.markClean();
+        assertFalse(userWithId.isDirty());
+
+        userWithId.setTelephone("111111111");
+        userWithId.setGender(Gender.FEMALE);
+        userWithId.setName("John");
+
+        assertEquals(2, userWithId.getChangedValues().size());
+        assertEquals("111111111", userWithId.getChangedValues().get("telephone"));
+        assertEquals("FEMALE", userWithId.getChangedValues().get("gender"));
+
+        userWithId.setTelephone("123456789");
+        userWithId.setGender(Gender.MALE);
+        assertFalse(userWithId.isDirty());
+    }
 }
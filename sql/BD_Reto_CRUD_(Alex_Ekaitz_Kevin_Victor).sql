@@ -8,12 +8,16 @@ USE users_manager;
 -- CREATING THE TABLES --
 CREATE TABLE db_profile (
   P_ID int PRIMARY KEY AUTO_INCREMENT,
-  P_EMAIL varchar(50) NOT NULL UNIQUE,
-  P_USERNAME varchar(40) NOT NULL UNIQUE,
+  P_EMAIL varchar(50) NOT NULL,
+  P_USERNAME varchar(40) NOT NULL,
   P_PASSWORD varchar(40) NOT NULL,
   P_NAME varchar(50) NOT NULL,
   P_LASTNAME varchar(40) NOT NULL,
-  P_TELEPHONE char(9) NOT NULL
+  P_TELEPHONE char(9) NOT NULL,
+  P_VERSION int NOT NULL DEFAULT 0,
+  CONSTRAINT UK_PROFILE_EMAIL UNIQUE (P_EMAIL),
+  CONSTRAINT UK_PROFILE_USERNAME UNIQUE (P_USERNAME),
+  INDEX IX_PROFILE_LASTNAME (P_LASTNAME)
 );
 
 CREATE TABLE db_user (
@@ -29,6 +33,46 @@ CREATE TABLE db_admin (
   FOREIGN KEY (A_ID) REFERENCES db_profile (P_ID) ON UPDATE CASCADE ON DELETE CASCADE
 );
 
+-- CHANGE LOG: EVERY WRITE ON A PROFILE GETS AN INCREASING SEQUENCE, DELETIONS ARE KEPT AS TOMBSTONES --
+CREATE TABLE db_change_log (
+  C_SEQ bigint PRIMARY KEY AUTO_INCREMENT,
+  C_PROFILE_ID int NOT NULL,
+  C_DELETED boolean NOT NULL DEFAULT FALSE,
+  C_TIME timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  INDEX IX_CHANGE_LOG_TIME (C_TIME)
+);
+
+-- ENTRIES OLDER THAN A DAY ARE PRUNED; CLIENTS BEHIND THE LAST PRUNED SEQUENCE RELOAD THEIR LISTING (NEEDS event_scheduler=ON) --
+CREATE TABLE db_change_log_state (
+  S_ID tinyint PRIMARY KEY,
+  S_PRUNED_SEQ bigint NOT NULL DEFAULT 0
+);
+
+INSERT INTO db_change_log_state (S_ID, S_PRUNED_SEQ) VALUES (1, 0);
+
+DELIMITER //
+CREATE TRIGGER tr_profile_insert AFTER INSERT ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_update AFTER UPDATE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_delete AFTER DELETE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID, C_DELETED) VALUES (OLD.P_ID, TRUE);
+//
+CREATE TRIGGER tr_user_update AFTER UPDATE ON db_user FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.U_ID);
+//
+CREATE EVENT ev_prune_change_log ON SCHEDULE EVERY 1 HOUR DO
+BEGIN
+  DECLARE pruned bigint;
+  SELECT COALESCE(MAX(C_SEQ), 0) INTO pruned FROM db_change_log WHERE C_TIME < NOW(3) - INTERVAL 1 DAY;
+  UPDATE db_change_log_state SET S_PRUNED_SEQ = GREATEST(S_PRUNED_SEQ, pruned) WHERE S_ID = 1;
+  DELETE FROM db_change_log WHERE C_SEQ <= pruned;
+END
+//
+DELIMITER ;
+
 -- INSERTS IN THE TABLES --
 INSERT INTO db_profile (P_EMAIL, P_USERNAME, P_PASSWORD, P_NAME, P_LASTNAME, P_TELEPHONE) VALUES
 ('admin@sandia.com', 'admin', 'Ab123456', 'Admin', 'Sandia', '123456789'),
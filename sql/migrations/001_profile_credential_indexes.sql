@@ -0,0 +1,27 @@
+-- MIGRATION 001: NAMED UNIQUE INDEXES FOR THE LOGIN CREDENTIALS --
+-- Login looks a profile up by P_EMAIL or by P_USERNAME alone, so each column needs its own unique index.
+-- Databases created with the previous script already have them under the implicit names P_EMAIL and P_USERNAME;
+-- this script renames them so the constraint names can be matched by the application. Requires MySQL 5.7 or later.
+USE users_manager;
+
+DROP PROCEDURE IF EXISTS migrate_001;
+
+DELIMITER //
+CREATE PROCEDURE migrate_001()
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND INDEX_NAME = 'P_EMAIL') THEN
+    ALTER TABLE db_profile RENAME INDEX P_EMAIL TO UK_PROFILE_EMAIL;
+  ELSEIF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND INDEX_NAME = 'UK_PROFILE_EMAIL') THEN
+    ALTER TABLE db_profile ADD CONSTRAINT UK_PROFILE_EMAIL UNIQUE (P_EMAIL);
+  END IF;
+
+  IF EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND INDEX_NAME = 'P_USERNAME') THEN
+    ALTER TABLE db_profile RENAME INDEX P_USERNAME TO UK_PROFILE_USERNAME;
+  ELSEIF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND INDEX_NAME = 'UK_PROFILE_USERNAME') THEN
+    ALTER TABLE db_profile ADD CONSTRAINT UK_PROFILE_USERNAME UNIQUE (P_USERNAME);
+  END IF;
+END //
+DELIMITER ;
+
+CALL migrate_001();
+DROP PROCEDURE migrate_001;
@@ -0,0 +1,18 @@
+-- MIGRATION 002: VERSION COLUMN FOR OPTIMISTIC CONCURRENCY --
+-- Every update of a profile increments P_VERSION and only succeeds if the version read by the application is still current,
+-- so concurrent edits from several administrators are detected instead of overwriting each other.
+USE users_manager;
+
+DROP PROCEDURE IF EXISTS migrate_002;
+
+DELIMITER //
+CREATE PROCEDURE migrate_002()
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND COLUMN_NAME = 'P_VERSION') THEN
+    ALTER TABLE db_profile ADD COLUMN P_VERSION int NOT NULL DEFAULT 0 AFTER P_TELEPHONE;
+  END IF;
+END //
+DELIMITER ;
+
+CALL migrate_002();
+DROP PROCEDURE migrate_002;
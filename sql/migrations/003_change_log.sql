@@ -0,0 +1,30 @@
+-- MIGRATION 003: CHANGE LOG FOR DELTA SYNCHRONIZATION --
+-- Every insert, update and delete of a profile is recorded with an increasing sequence by triggers,
+-- so clients can ask only for the profiles changed after the last sequence they have seen.
+USE users_manager;
+
+CREATE TABLE IF NOT EXISTS db_change_log (
+  C_SEQ bigint PRIMARY KEY AUTO_INCREMENT,
+  C_PROFILE_ID int NOT NULL,
+  C_DELETED boolean NOT NULL DEFAULT FALSE
+);
+
+DROP TRIGGER IF EXISTS tr_profile_insert;
+DROP TRIGGER IF EXISTS tr_profile_update;
+DROP TRIGGER IF EXISTS tr_profile_delete;
+DROP TRIGGER IF EXISTS tr_user_update;
+
+DELIMITER //
+CREATE TRIGGER tr_profile_insert AFTER INSERT ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_update AFTER UPDATE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.P_ID);
+//
+CREATE TRIGGER tr_profile_delete AFTER DELETE ON db_profile FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID, C_DELETED) VALUES (OLD.P_ID, TRUE);
+//
+CREATE TRIGGER tr_user_update AFTER UPDATE ON db_user FOR EACH ROW
+  INSERT INTO db_change_log (C_PROFILE_ID) VALUES (NEW.U_ID);
+//
+DELIMITER ;
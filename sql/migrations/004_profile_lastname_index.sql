@@ -0,0 +1,18 @@
+-- MIGRATION 004: INDEX FOR THE LASTNAME SEARCH --
+-- The admin search matches a prefix of P_USERNAME, P_EMAIL or P_LASTNAME with LIKE 'prefix%'.
+-- Username and email already have their unique indexes; this index lets the lastname branch seek too instead of scanning db_profile.
+USE users_manager;
+
+DROP PROCEDURE IF EXISTS migrate_004;
+
+DELIMITER //
+CREATE PROCEDURE migrate_004()
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_profile' AND INDEX_NAME = 'IX_PROFILE_LASTNAME') THEN
+    ALTER TABLE db_profile ADD INDEX IX_PROFILE_LASTNAME (P_LASTNAME);
+  END IF;
+END //
+DELIMITER ;
+
+CALL migrate_004();
+DROP PROCEDURE migrate_004;
@@ -0,0 +1,42 @@
+-- MIGRATION 005: COMMIT-SAFE WATERMARK AND RETENTION FOR THE CHANGE LOG --
+-- C_SEQ is taken when an entry is inserted, not when its transaction commits, so a reader could move past a sequence
+-- that commits later. C_TIME lets the reader hold its watermark at a gap until the gap is older than a safety margin.
+-- Entries older than a day are pruned every hour; clients behind the last pruned sequence reload their listing.
+-- The pruning event needs the event scheduler, which is on by default since MySQL 8.0.
+USE users_manager;
+
+DROP PROCEDURE IF EXISTS migrate_005;
+
+DELIMITER //
+CREATE PROCEDURE migrate_005()
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_change_log' AND COLUMN_NAME = 'C_TIME') THEN
+    ALTER TABLE db_change_log ADD COLUMN C_TIME timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) AFTER C_DELETED;
+  END IF;
+  IF NOT EXISTS (SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'db_change_log' AND INDEX_NAME = 'IX_CHANGE_LOG_TIME') THEN
+    ALTER TABLE db_change_log ADD INDEX IX_CHANGE_LOG_TIME (C_TIME);
+  END IF;
+END //
+DELIMITER ;
+
+CALL migrate_005();
+DROP PROCEDURE migrate_005;
+
+CREATE TABLE IF NOT EXISTS db_change_log_state (
+  S_ID tinyint PRIMARY KEY,
+  S_PRUNED_SEQ bigint NOT NULL DEFAULT 0
+);
+
+INSERT IGNORE INTO db_change_log_state (S_ID, S_PRUNED_SEQ) VALUES (1, 0);
+
+DROP EVENT IF EXISTS ev_prune_change_log;
+
+DELIMITER //
+CREATE EVENT ev_prune_change_log ON SCHEDULE EVERY 1 HOUR DO
+BEGIN
+  DECLARE pruned bigint;
+  SELECT COALESCE(MAX(C_SEQ), 0) INTO pruned FROM db_change_log WHERE C_TIME < NOW(3) - INTERVAL 1 DAY;
+  UPDATE db_change_log_state SET S_PRUNED_SEQ = GREATEST(S_PRUNED_SEQ, pruned) WHERE S_ID = 1;
+  DELETE FROM db_change_log WHERE C_SEQ <= pruned;
+END //
+DELIMITER ;